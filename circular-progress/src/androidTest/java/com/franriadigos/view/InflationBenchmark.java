@@ -0,0 +1,126 @@
+package com.franriadigos.view;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Debug;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.franriadigos.view.test.R;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Construction cost of the circular progress views, inflating a layout of {@link #RING_COUNT}
+ * rings of the same type.
+ * <p/>
+ * Every case inflates the layout, then measures and lays out each ring. The eager cases also
+ * build what every instance built before paints, shaders and animators were created lazily: the
+ * animator and the paints, so the difference between both cases is only that deferred work.
+ * Divide the reported times by {@link #RING_COUNT} to get the cost of a single instance,
+ * allocations are reported per instance in the instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InflationBenchmark {
+
+    private static final int RING_COUNT = 20;
+    private static final int RING_SIZE  = 256;
+
+    /*
+     * Status code of the intermediate results of the instrumentation
+     */
+    private static final int STATUS_REPORT = 2;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private LayoutInflater mInflater;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        mInflater = LayoutInflater.from(context);
+    }
+
+    @Test
+    public void frameLayoutLazy() {
+        benchmark("frameLayoutLazy", R.layout.benchmark_frame_layout_rings, false);
+    }
+
+    @Test
+    public void frameLayoutEager() {
+        benchmark("frameLayoutEager", R.layout.benchmark_frame_layout_rings, true);
+    }
+
+    @Test
+    public void imageViewLazy() {
+        benchmark("imageViewLazy", R.layout.benchmark_image_view_rings, false);
+    }
+
+    @Test
+    public void imageViewEager() {
+        benchmark("imageViewEager", R.layout.benchmark_image_view_rings, true);
+    }
+
+    private void benchmark(@NonNull String name, @LayoutRes int layout, boolean eager) {
+        reportAllocations(name, layout, eager);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            inflate(layout, eager);
+        }
+    }
+
+    private ViewGroup inflate(@LayoutRes int layout, boolean eager) {
+        ViewGroup root = (ViewGroup) mInflater.inflate(layout, null, false);
+        int spec = View.MeasureSpec.makeMeasureSpec(RING_SIZE, View.MeasureSpec.EXACTLY);
+        for (int i = 0; i < root.getChildCount(); i++) {
+            View ring = root.getChildAt(i);
+            ring.measure(spec, spec);
+            ring.layout(0, 0, RING_SIZE, RING_SIZE);
+            if (!eager) {
+                continue;
+            }
+            if (ring instanceof FrameLayoutCircularProgress) {
+                ((FrameLayoutCircularProgress) ring).getAnimator();
+                ((FrameLayoutCircularProgress) ring).ensurePaints();
+            } else {
+                ((ImageViewCircularProgress) ring).getAnimator();
+                ((ImageViewCircularProgress) ring).ensurePaints();
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Count the objects and bytes allocated by a single inflation, once the classes are loaded
+     */
+    @SuppressWarnings("deprecation")
+    private void reportAllocations(@NonNull String name, @LayoutRes int layout, boolean eager) {
+        assertEquals(RING_COUNT, inflate(layout, eager).getChildCount());
+
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        Debug.startAllocCounting();
+        inflate(layout, eager);
+        Debug.stopAllocCounting();
+
+        Bundle status = new Bundle();
+        status.putInt(name + "_allocationsPerInstance", Debug.getThreadAllocCount() / RING_COUNT);
+        status.putInt(name + "_allocatedBytesPerInstance", Debug.getThreadAllocSize() / RING_COUNT);
+        InstrumentationRegistry.getInstrumentation().sendStatus(STATUS_REPORT, status);
+    }
+}
@@ -0,0 +1,198 @@
+package com.franriadigos.view;
+
+import android.content.Context;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.provider.Settings;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import java.util.ArrayList;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Decides when the animations of a view should run and how often they should draw.
+ * <br/>Animations are suspended while the view is detached, hidden or its window is not
+ * visible. The frame rate can be capped, and it is capped to {@link #POWER_SAVE_FRAME_RATE}
+ * while the battery saver is on.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class AnimationPolicy {
+
+    /**
+     * Notified when the animations of the view must be paused or resumed
+     */
+    public interface Callback {
+        void onActiveChanged(boolean active);
+    }
+
+    /**
+     * Frame rate cap applied while the battery saver is on
+     */
+    public static final int POWER_SAVE_FRAME_RATE = 30;
+
+    /**
+     * Frame rate cap applied while the view is drawn with low quality
+     */
+    public static final int LOW_QUALITY_FRAME_RATE = 30;
+
+    @NonNull
+    private final View     mView;
+    @NonNull
+    private final Callback mCallback;
+
+    /*
+     * Visibility state
+     */
+    private boolean mAttached;
+    private boolean mWindowVisible = true;
+    private boolean mVisible       = true;
+    private boolean mActive;
+
+    /*
+     * Frame rate
+     */
+    private int  mMaxFrameRate;
+    private long mFrameInterval;
+    private long mLastFrameMillis;
+
+    /*
+     * System settings
+     */
+    private float   mDurationScale = 1f;
+    private boolean mPowerSaveMode;
+    private boolean mLowQuality;
+
+    /*
+     * Other listeners of the active state
+     */
+    private ArrayList<CircularProgressContract.OnProgressVisibilityChangeListener> mListeners;
+
+    public AnimationPolicy(@NonNull View view, @NonNull Callback callback) {
+        mView = view;
+        mCallback = callback;
+    }
+
+    public void setAttached(boolean attached) {
+        mAttached = attached;
+        if (attached) {
+            refreshSystemSettings();
+        }
+        update();
+    }
+
+    public void setWindowVisible(boolean windowVisible) {
+        mWindowVisible = windowVisible;
+        update();
+    }
+
+    public void setVisible(boolean visible) {
+        mVisible = visible;
+        update();
+    }
+
+    /**
+     * @return true if the view can be seen and its animations should run
+     */
+    public boolean isActive() {
+        return mActive;
+    }
+
+    public void addListener(
+            @NonNull CircularProgressContract.OnProgressVisibilityChangeListener listener) {
+        if (mListeners == null) {
+            mListeners = new ArrayList<>();
+        }
+        mListeners.add(listener);
+    }
+
+    public void removeListener(
+            @NonNull CircularProgressContract.OnProgressVisibilityChangeListener listener) {
+        if (mListeners != null) {
+            mListeners.remove(listener);
+        }
+    }
+
+    /**
+     * Read the animator duration scale and the battery saver state again
+     */
+    public void refreshSystemSettings() {
+        Context context = mView.getContext();
+        mDurationScale = Settings.Global.getFloat(context.getContentResolver(),
+                                                  Settings.Global.ANIMATOR_DURATION_SCALE, 1f);
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        mPowerSaveMode = powerManager != null && powerManager.isPowerSaveMode();
+        updateFrameInterval();
+    }
+
+    /**
+     * @return the animator duration scale of the system, 0 if animations are disabled
+     */
+    public float getDurationScale() {
+        return mDurationScale;
+    }
+
+    public int getMaxFrameRate() {
+        return mMaxFrameRate;
+    }
+
+    /**
+     * @param maxFrameRate max frames per second drawn by animations, 0 for no limit
+     */
+    public void setMaxFrameRate(int maxFrameRate) {
+        mMaxFrameRate = Math.max(0, maxFrameRate);
+        updateFrameInterval();
+    }
+
+    /**
+     * @param lowQuality true to cap the frame rate of a view drawn with low quality
+     */
+    public void setLowQuality(boolean lowQuality) {
+        mLowQuality = lowQuality;
+        updateFrameInterval();
+    }
+
+    /**
+     * Whether an animation frame should be drawn now, according to the frame rate cap
+     */
+    public boolean isFrameDue() {
+        if (mFrameInterval == 0) {
+            return true;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (now - mLastFrameMillis >= mFrameInterval) {
+            mLastFrameMillis = now;
+            return true;
+        }
+        return false;
+    }
+
+    private void updateFrameInterval() {
+        int frameRate = mMaxFrameRate;
+        if (mPowerSaveMode && (frameRate == 0 || frameRate > POWER_SAVE_FRAME_RATE)) {
+            frameRate = POWER_SAVE_FRAME_RATE;
+        }
+        if (mLowQuality && (frameRate == 0 || frameRate > LOW_QUALITY_FRAME_RATE)) {
+            frameRate = LOW_QUALITY_FRAME_RATE;
+        }
+        // Leave a small margin so a 60hz display is not capped at 20fps for a 30fps limit
+        mFrameInterval = frameRate > 0 ? (1000 / frameRate) - 2 : 0;
+    }
+
+    private void update() {
+        boolean active = mAttached && mWindowVisible && mVisible;
+        if (active != mActive) {
+            mActive = active;
+            mCallback.onActiveChanged(active);
+            if (mListeners != null) {
+                // Listeners may remove themselves
+                for (int i = mListeners.size() - 1; i >= 0; i--) {
+                    mListeners.get(i).onProgressVisibilityChanged(active);
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.franriadigos.view;
 
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.util.AttributeSet;
+import android.util.LruCache;
 import android.view.View;
 
 import androidx.annotation.AttrRes;
@@ -16,6 +18,15 @@ import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
 
 @RestrictTo(LIBRARY_GROUP_PREFIX)
 public class AttributesHelper {
+
+    /*
+     * Parsed color arrays by resource and configuration, so views inflated again after a
+     * configuration change don't parse them again
+     */
+    private static final int                        COLORS_CACHE_SIZE = 32;
+    private static final LruCache<ColorsKey, int[]> sColorsCache      =
+            new LruCache<>(COLORS_CACHE_SIZE);
+
     @NonNull
     private final CircularProgressContract mView;
 
@@ -24,6 +35,10 @@ public class AttributesHelper {
     }
 
     public void loadFromAttributes(@Nullable AttributeSet attrs, @AttrRes int defStyleAttr, @StyleRes int defStyleRes) {
+        // Views created in code have nothing to read, keep their defaults
+        if (attrs == null && defStyleAttr == 0 && defStyleRes == 0) {
+            return;
+        }
         final TypedArray a = ((View) mView).getContext().obtainStyledAttributes(
                 attrs, R.styleable.CircularProgress, defStyleAttr, defStyleRes);
 
@@ -52,49 +67,16 @@ public class AttributesHelper {
 
         try {
             if (a.hasValue(R.styleable.CircularProgress_progressGradient)) {
-                int[] gradient;
-                int i = -1;
-                try {
-                    int resourceId = a
-                            .getResourceId(R.styleable.CircularProgress_progressGradient, 0);
-                    if(((View) mView).isInEditMode()) {
-                        String[] gradientRes = ((View) mView).getResources().getStringArray(resourceId);
-                        gradient = new int[gradientRes.length];
-                        i = 0;
-                        for (String color : gradientRes) {
-                            gradient[i] = Color.parseColor(color);
-                            i++;
-                        }
-                    } else {
-                        if(!a.getResources().getResourceTypeName(resourceId).equals("array")) {
-                            throw new IllegalArgumentException("Resource is not an array");
-                        }
-                        TypedArray ta = a.getResources().obtainTypedArray(resourceId);
-                        int len = ta.length();
-                        gradient = new int[len];
-                        i = 0;
-                        for (int c = 0; c < len; c++) {
-                            String colorString = ta.getString(c);
-                            if(colorString != null) {
-                                gradient[i] = Color.parseColor(colorString);
-                                i++;
-                            } else {
-                                throw new IllegalArgumentException();
-                            }
-                        }
-                        ta.recycle();
-                    }
-                } catch (IllegalArgumentException e) {
-                    if(i == -1) {
-                        throw e;
-                    }
-                    throw new IllegalArgumentException("Unknown Color at position " + i);
-                }
+                int[] gradient = loadColors(
+                        a, R.styleable.CircularProgress_progressGradient, (View) mView);
 
                 mView.setProgressGradient(gradient);
 
                 mView.setJoinGradient(a.getBoolean(R.styleable.CircularProgress_joinGradient, false));
 
+                mView.setGradientFollowSweep(
+                        a.getBoolean(R.styleable.CircularProgress_gradientFollowSweep, false));
+
                 mView.setGradientFactor(
                         a.getFloat(R.styleable.CircularProgress_gradientFactor, 1f));
             }
@@ -107,6 +89,161 @@ public class AttributesHelper {
         mView.setProgressRingCorner(a.getInt(
                 R.styleable.CircularProgress_progressRingCorner, Paint.Cap.BUTT.ordinal()));
 
+        try {
+            if (a.hasValue(R.styleable.CircularProgress_progressColorStops)) {
+                int[] colors = loadColors(
+                        a, R.styleable.CircularProgress_progressColorStops, (View) mView);
+                float[] stops;
+                if (a.hasValue(R.styleable.CircularProgress_progressColorStopValues)) {
+                    stops = loadFloats(a, R.styleable.CircularProgress_progressColorStopValues);
+                } else {
+                    // Spread the colors evenly
+                    stops = new float[colors.length];
+                    for (int i = 1; i < stops.length; i++) {
+                        stops[i] = mView.getMax() * i / (stops.length - 1);
+                    }
+                }
+                mView.setProgressColorStops(stops, colors);
+            }
+        } catch (Exception e) {
+            if(! ((View) mView).isInEditMode()) {
+                throw e;
+            }
+        }
+
+        mView.setSegmentGap(a.getFloat(
+                R.styleable.CircularProgress_segmentGap, mView.getSegmentGap()));
+
+        mView.setTickWidth(a.getDimension(
+                R.styleable.CircularProgress_tickWidth, mView.getTickWidth()));
+        mView.setTickCount(a.getInt(
+                R.styleable.CircularProgress_tickCount, mView.getTickCount()));
+
+        mView.setGlowRadius(a.getDimension(
+                R.styleable.CircularProgress_glowRadius, mView.getGlowRadius()));
+        mView.setGlowColor(a.getColor(
+                R.styleable.CircularProgress_glowColor, mView.getGlowColor()));
+
+        mView.setLabelTextSize(a.getDimension(
+                R.styleable.CircularProgress_labelTextSize, mView.getLabelTextSize()));
+        mView.setLabelColor(a.getColor(
+                R.styleable.CircularProgress_labelColor, mView.getLabelColor()));
+        mView.setLabelEnabled(
+                a.getBoolean(R.styleable.CircularProgress_showLabel, false));
+
+        mView.setRenderQuality(a.getInt(
+                R.styleable.CircularProgress_renderQuality, mView.getRenderQuality()));
+
+        mView.setMaxFrameRate(a.getInt(
+                R.styleable.CircularProgress_maxFrameRate, mView.getMaxFrameRate()));
+
         a.recycle();
     }
+
+    /**
+     * @return the cap of the given progressRingCorner attribute value, BUTT if it is unknown
+     */
+    @NonNull
+    static Paint.Cap getCap(int id) {
+        for (Paint.Cap value : Paint.Cap.values()) {
+            if (id == value.ordinal()) {
+                return value;
+            }
+        }
+        return Paint.Cap.BUTT;
+    }
+
+    /**
+     * Parse an array resource of numbers referenced by the attribute at the given index
+     */
+    static float[] loadFloats(@NonNull TypedArray a, int index) {
+        TypedArray ta = a.getResources().obtainTypedArray(a.getResourceId(index, 0));
+        float[] values = new float[ta.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ta.getFloat(i, 0);
+        }
+        ta.recycle();
+        return values;
+    }
+
+    /**
+     * Parse an array resource of color strings referenced by the attribute at the given index
+     */
+    static int[] loadColors(@NonNull TypedArray a, int index, @NonNull View view) {
+        int[] colors;
+        int i = -1;
+        try {
+            int resourceId = a.getResourceId(index, 0);
+            if(view.isInEditMode()) {
+                String[] colorsRes = view.getResources().getStringArray(resourceId);
+                colors = new int[colorsRes.length];
+                i = 0;
+                for (String color : colorsRes) {
+                    colors[i] = Color.parseColor(color);
+                    i++;
+                }
+            } else {
+                ColorsKey key = new ColorsKey(resourceId, a.getResources().getConfiguration());
+                int[] cached = sColorsCache.get(key);
+                if (cached != null) {
+                    return cached.clone();
+                }
+                if(!a.getResources().getResourceTypeName(resourceId).equals("array")) {
+                    throw new IllegalArgumentException("Resource is not an array");
+                }
+                TypedArray ta = a.getResources().obtainTypedArray(resourceId);
+                int len = ta.length();
+                colors = new int[len];
+                i = 0;
+                for (int c = 0; c < len; c++) {
+                    String colorString = ta.getString(c);
+                    if(colorString != null) {
+                        colors[i] = Color.parseColor(colorString);
+                        i++;
+                    } else {
+                        throw new IllegalArgumentException();
+                    }
+                }
+                ta.recycle();
+                sColorsCache.put(key, colors.clone());
+            }
+        } catch (IllegalArgumentException e) {
+            if(i == -1) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Unknown Color at position " + i);
+        }
+        return colors;
+    }
+
+    /**
+     * A color array resource resolved with a configuration, any qualifier can pick another array
+     */
+    private static final class ColorsKey {
+        private final int           mResourceId;
+        private final Configuration mConfiguration;
+
+        ColorsKey(int resourceId, @NonNull Configuration configuration) {
+            mResourceId = resourceId;
+            // Copied, the resources update their configuration in place
+            mConfiguration = new Configuration(configuration);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ColorsKey)) {
+                return false;
+            }
+            ColorsKey other = (ColorsKey) o;
+            return mResourceId == other.mResourceId && mConfiguration.equals(other.mConfiguration);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mResourceId + mConfiguration.hashCode();
+        }
+    }
 }
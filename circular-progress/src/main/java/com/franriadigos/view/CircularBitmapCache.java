@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Process wide cache of bitmaps cropped in a circle, shared by every
+ * {@link ImageViewCircularProgress} with {@link ImageViewCircularProgress#setAsyncCrop(boolean)}.
+ * <p/>
+ * Crops are keyed by the identity of the source bitmap and the diameter of the crop, so the
+ * same avatar shown by many views at the same size is cropped and stored only once.
+ * The cache is bounded by the bytes used by the crops and it releases memory on
+ * {@link #onTrimMemory(int)} once registered with {@link #register(Context)}.
+ */
+public class CircularBitmapCache implements ComponentCallbacks2 {
+
+    private static CircularBitmapCache sInstance;
+
+    private final LruCache<Key, Bitmap> mCache;
+
+    /*
+     * Lookups made by the views, checks made by the croppers are not counted
+     */
+    private int mHitCount;
+    private int mMissCount;
+
+    /**
+     * @return the shared cache, bounded to a sixteenth of the available memory
+     */
+    @NonNull
+    public static synchronized CircularBitmapCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new CircularBitmapCache((int) (Runtime.getRuntime().maxMemory() / 16));
+        }
+        return sInstance;
+    }
+
+    /**
+     * @param maxBytes max memory used by the cached crops
+     */
+    public CircularBitmapCache(int maxBytes) {
+        mCache = new LruCache<Key, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Release memory when the system asks for it
+     *
+     * @param context any context, the application context is used
+     */
+    public void register(@NonNull Context context) {
+        context.getApplicationContext().registerComponentCallbacks(this);
+    }
+
+    public void unregister(@NonNull Context context) {
+        context.getApplicationContext().unregisterComponentCallbacks(this);
+    }
+
+    /**
+     * @return the crop of the source with the given diameter or null
+     */
+    @Nullable
+    public Bitmap get(@NonNull Bitmap source, int size) {
+        Bitmap cropped = mCache.get(new Key(source, size));
+        synchronized (this) {
+            if (cropped != null) {
+                mHitCount++;
+            } else {
+                mMissCount++;
+            }
+        }
+        return cropped;
+    }
+
+    /**
+     * Same as {@link #get(Bitmap, int)} without counting a hit or a miss, e.g. to check the
+     * cache again right before cropping
+     */
+    @Nullable
+    Bitmap peek(@NonNull Bitmap source, int size) {
+        return mCache.get(new Key(source, size));
+    }
+
+    public void put(@NonNull Bitmap source, int size, @NonNull Bitmap cropped) {
+        mCache.put(new Key(source, size), cropped);
+    }
+
+    public void evictAll() {
+        mCache.evictAll();
+    }
+
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return the ratio of lookups that found a crop, from 0 to 1
+     */
+    public synchronized float getHitRate() {
+        int hits = mHitCount;
+        int lookups = hits + mMissCount;
+        return lookups > 0 ? (float) hits / lookups : 0;
+    }
+
+    /**
+     * @return the bytes used by the cached crops
+     */
+    public int getSize() {
+        return mCache.size();
+    }
+
+    public int getMaxSize() {
+        return mCache.maxSize();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_MODERATE) {
+            // The app is in the background list
+            mCache.evictAll();
+        } else if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            mCache.trimToSize(mCache.maxSize() / 2);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        mCache.evictAll();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    /**
+     * The source is weakly referenced, crops of collected bitmaps are never hit again and
+     * leave the cache as it evicts the least recently used entries
+     */
+    private static final class Key {
+        private final WeakReference<Bitmap> mSource;
+        private final int mSourceHash;
+        private final int mGenerationId;
+        private final int mSize;
+
+        Key(@NonNull Bitmap source, int size) {
+            mSource = new WeakReference<>(source);
+            mSourceHash = System.identityHashCode(source);
+            mGenerationId = source.getGenerationId();
+            mSize = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            Bitmap source = mSource.get();
+            return source != null
+                   && source == key.mSource.get()
+                   && mGenerationId == key.mGenerationId
+                   && mSize == key.mSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * mSourceHash + mGenerationId) + mSize;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.franriadigos.view;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.WorkerThread;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Crops bitmaps in a circle off the main thread.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class CircularCrop {
+
+    private static ExecutorService sExecutor;
+
+    private CircularCrop() {
+    }
+
+    /**
+     * @return a shared background executor with a single low priority thread
+     */
+    @NonNull
+    public static synchronized Executor getDefaultExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "CircularCrop");
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    /**
+     * Center crop and scale the source into a circle of the given diameter
+     *
+     * @param source the bitmap to crop, it is not modified
+     * @param size   diameter of the circle
+     * @return a new bitmap of size x size, transparent outside the circle
+     */
+    @NonNull
+    @WorkerThread
+    public static Bitmap crop(@NonNull Bitmap source, int size) {
+        // Hardware bitmaps can't be read by a software canvas
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+            && source.getConfig() == Bitmap.Config.HARDWARE) {
+            source = source.copy(Bitmap.Config.ARGB_8888, false);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        float scale = Math.max(size / (float) width, size / (float) height);
+
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        matrix.postTranslate((size - width * scale) / 2, (size - height * scale) / 2);
+
+        Shader shader = new BitmapShader(source, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        shader.setLocalMatrix(matrix);
+
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        paint.setShader(shader);
+
+        Bitmap output = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(output);
+        canvas.drawCircle(size / 2f, size / 2f, size / 2f, paint);
+        return output;
+    }
+}
@@ -2,15 +2,23 @@ package com.franriadigos.view;
 
 import android.graphics.Paint;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 public interface CircularProgressContract {
     int ANIMATION_DURATION = 1200;
     int ANIMATION_DELAY    = 500;
+    int STYLE_ANIMATION_DURATION = 300;
     int ANGLE_360          = 360;
     int ANGLE_90           = 90;
 
     int DEFAULT_BG_COLOR   = 0xAA83d0c9;
     int DEFAULT_RING_COLOR = 0xff009688;
 
+    int QUALITY_AUTO = 0;
+    int QUALITY_HIGH = 1;
+    int QUALITY_LOW  = 2;
+
     float getMax();
 
     void setMax(float max);
@@ -23,6 +31,56 @@ public interface CircularProgressContract {
 
     void setProgress(float progress);
 
+    /**
+     * Animate the progress towards the given value right away.
+     * <br/>Calling it again while animating retargets the running animation keeping its velocity.
+     */
+    void animateProgressTo(float progress);
+
+    /**
+     * @return true while the view is attached and visible, so its progress can be seen
+     */
+    boolean isProgressVisible();
+
+    /**
+     * Get notified when the progress can be seen or not, e.g. to stop feeding it while off-screen
+     */
+    void addOnProgressVisibilityChangeListener(
+            @NonNull OnProgressVisibilityChangeListener listener);
+
+    void removeOnProgressVisibilityChangeListener(
+            @NonNull OnProgressVisibilityChangeListener listener);
+
+    int getRenderQuality();
+
+    /**
+     * Quality of the drawing, the low quality turns off anti-aliasing on the background ring,
+     * clips the image instead of masking it and caps the animation frame rate
+     *
+     * @param renderQuality {@link #QUALITY_AUTO} to lower it for small rings or low end devices,
+     *                      {@link #QUALITY_HIGH} or {@link #QUALITY_LOW}
+     */
+    void setRenderQuality(int renderQuality);
+
+    long getAccessibilityInterval();
+
+    /**
+     * Min time between two progress announcements of accessibility services, changes made by
+     * an animation are only announced once it ends
+     *
+     * @param intervalMillis interval in milliseconds, 200 by default
+     */
+    void setAccessibilityInterval(long intervalMillis);
+
+    int getMaxFrameRate();
+
+    /**
+     * Cap the frames per second drawn by the progress animations
+     *
+     * @param maxFrameRate max frames per second, 0 for no limit
+     */
+    void setMaxFrameRate(int maxFrameRate);
+
     float getProgressRingSize();
 
     void setProgressRingSize(float progressRingSize);
@@ -51,6 +109,14 @@ public interface CircularProgressContract {
 
     void setJoinGradient(boolean isJoinGradient);
 
+    boolean isGradientFollowSweep();
+
+    /**
+     * Stretch the progress gradient over the current sweep instead of the full circle,
+     * so the last color is always at the end of the progress
+     */
+    void setGradientFollowSweep(boolean gradientFollowSweep);
+
     float getGradientFactor();
 
     void setGradientFactor(float gradientFactor);
@@ -60,4 +126,159 @@ public interface CircularProgressContract {
     void setProgressRingCorner(int progressRingCorner);
 
     Paint.Cap getCap(int id);
+
+    /**
+     * Split the progress ring in colored segments drawn one after another from the top
+     *
+     * @param values one value per segment, relative to the max, or null to remove the segments
+     * @param colors one color per segment
+     */
+    void setProgressSegments(@Nullable float[] values, @Nullable int[] colors);
+
+    /**
+     * Change the color of the progress ring with the progress, blending the colors between
+     * the stops. It is ignored while there is a progress gradient.
+     *
+     * @param stops  progress values in ascending order, relative to the max,
+     *               or null to use the progress ring color
+     * @param colors one color per stop
+     */
+    void setProgressColorStops(@Nullable float[] stops, @Nullable int[] colors);
+
+    /**
+     * Update the value of a single segment without recomputing the other ones
+     */
+    void setProgressSegment(int index, float value);
+
+    float getSegmentGap();
+
+    /**
+     * @param segmentGap the space between two segments in degrees
+     */
+    void setSegmentGap(float segmentGap);
+
+    int getTickCount();
+
+    /**
+     * Draw the rings as a dial of tick marks, lit up to the current progress
+     *
+     * @param tickCount number of ticks, 0 to draw plain rings
+     */
+    void setTickCount(int tickCount);
+
+    float getTickWidth();
+
+    void setTickWidth(float tickWidth);
+
+    float getGlowRadius();
+
+    /**
+     * Draw a soft glow under the progress ring
+     *
+     * @param glowRadius blur radius of the glow, 0 to disable it
+     */
+    void setGlowRadius(float glowRadius);
+
+    int getGlowColor();
+
+    /**
+     * @param glowColor color of the glow, 0 to use the color of the progress ring
+     */
+    void setGlowColor(int glowColor);
+
+    boolean isLabelEnabled();
+
+    /**
+     * Draw a text label in the center of the ring, by default the progress percentage
+     */
+    void setLabelEnabled(boolean labelEnabled);
+
+    float getLabelTextSize();
+
+    void setLabelTextSize(float labelTextSize);
+
+    int getLabelColor();
+
+    void setLabelColor(int labelColor);
+
+    @NonNull
+    LabelFormatter getLabelFormatter();
+
+    void setLabelFormatter(@NonNull LabelFormatter labelFormatter);
+
+    /**
+     * Start a batch of style changes.
+     * <br/>Nothing is applied until {@link Editor#apply()} or {@link Editor#applyAnimated()} is
+     * called, which rebuild the paints once, request a single layout if the ring sizes changed
+     * and invalidate once.
+     *
+     * @return {@link Editor}
+     */
+    @NonNull
+    Editor edit();
+
+    /**
+     * Notified on the main thread when the view is attached and visible or stops being so
+     */
+    interface OnProgressVisibilityChangeListener {
+        void onProgressVisibilityChanged(boolean visible);
+    }
+
+    /**
+     * Writes the text of the label into a reusable buffer
+     */
+    interface LabelFormatter {
+        /**
+         * Called only when the progress or the max changed
+         *
+         * @param progress current progress
+         * @param max      max value
+         * @param buffer   buffer to write the text into, up to 32 chars
+         * @return the number of chars written
+         */
+        int format(float progress, float max, @NonNull char[] buffer);
+    }
+
+    /**
+     * Batched style changes of a circular progress view
+     */
+    interface Editor {
+        @NonNull
+        Editor setMax(float max);
+
+        @NonNull
+        Editor setProgressRingSize(float progressRingSize);
+
+        @NonNull
+        Editor setBackgroundRingSize(float backgroundRingSize);
+
+        @NonNull
+        Editor setBackgroundRingColor(int backgroundRingColor);
+
+        @NonNull
+        Editor setProgressRingColor(int progressRingColor);
+
+        @NonNull
+        Editor setProgressGradient(int[] progressGradient);
+
+        @NonNull
+        Editor setJoinGradient(boolean isJoinGradient);
+
+        @NonNull
+        Editor setGradientFactor(float gradientFactor);
+
+        @NonNull
+        Editor setProgressRingCorner(int progressRingCorner);
+
+        /**
+         * Apply all the pending changes at once
+         */
+        void apply();
+
+        /**
+         * Apply all the pending changes at once, animating the max value, ring sizes and
+         * colors from the old style to the new one
+         */
+        void applyAnimated();
+    }
 }
@@ -0,0 +1,452 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import static com.franriadigos.view.CircularProgressContract.ANGLE_360;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_90;
+import static com.franriadigos.view.CircularProgressContract.DEFAULT_BG_COLOR;
+import static com.franriadigos.view.CircularProgressContract.DEFAULT_RING_COLOR;
+
+/**
+ * Draws the same ring as the circular progress views without a view, e.g. into the
+ * {@link Bitmap} of a notification or an app widget.
+ * <p/>
+ * <b>Usage:</b>
+ * <br>Set the style once, or copy it from a view with {@link #setStyle(CircularProgressContract)},
+ * then call {@link #render(Bitmap)} or {@link #draw(Canvas, int, int)} on every update.
+ * <br>It can be used from any thread. Paints, shaders and the canvas are kept between calls and
+ * only rebuilt when the style or the size changes.
+ *
+ * @see #render(Bitmap)
+ */
+public class CircularProgressRenderer {
+
+    /**
+     * Progress values
+     */
+    private float mMax      = 100;
+    private float mProgress = 0;
+
+    /**
+     * Progress ring sizes
+     */
+    private float mBackgroundRingSize = 40;
+    private float mProgressRingSize   = mBackgroundRingSize;
+
+    /**
+     * Default progress colors
+     */
+    private int mBackgroundRingColor = DEFAULT_BG_COLOR;
+    private int mProgressRingColor   = DEFAULT_RING_COLOR;
+    private int[]   mProgressGradient;
+    private boolean mIsJoinGradient;
+
+    /**
+     * Default progress ring cap
+     */
+    private Paint.Cap mProgressRingCorner = Paint.Cap.BUTT;
+
+    /*
+     * Optional image cropped in a circle
+     */
+    private Bitmap mImage;
+
+    /*
+     * Paints
+     */
+    private final Paint mProgressRingPaint   = new Paint();
+    private final Paint mBackgroundRingPaint = new Paint();
+    private final Paint mImagePaint          = new Paint();
+
+    /*
+     * Reusable buffers
+     */
+    private final RectF  mRingBounds   = new RectF();
+    private final Matrix mShaderMatrix = new Matrix();
+    private final Matrix mImageMatrix  = new Matrix();
+    private final Canvas mCanvas       = new Canvas();
+
+    /*
+     * Size and style the shaders were built for
+     */
+    private int     mWidth;
+    private int     mHeight;
+    private boolean mStyleChanged = true;
+    private boolean mImageChanged = true;
+
+    public CircularProgressRenderer() {
+        mProgressRingPaint.setAntiAlias(true);
+        mProgressRingPaint.setStyle(Paint.Style.STROKE);
+        mBackgroundRingPaint.setAntiAlias(true);
+        mBackgroundRingPaint.setStyle(Paint.Style.STROKE);
+        mImagePaint.setAntiAlias(true);
+    }
+
+    /**
+     * Copy the style and progress of a circular progress view
+     *
+     * @param view the view to copy the values from
+     */
+    public synchronized void setStyle(@NonNull CircularProgressContract view) {
+        mMax = view.getMax();
+        mProgress = view.getProgress();
+        mBackgroundRingSize = view.getBackgroundRingSize();
+        mProgressRingSize = view.getProgressRingSize();
+        mBackgroundRingColor = view.getBackgroundRingColor();
+        mProgressRingColor = view.getProgressRingColor();
+        mProgressGradient = view.getProgressGradient();
+        mIsJoinGradient = view.isJoinGradient();
+        mProgressRingCorner = view.getProgressRingCorner();
+        mStyleChanged = true;
+    }
+
+    /**
+     * Clear the bitmap and draw the ring into it, filling its whole size
+     *
+     * @param bitmap a mutable bitmap
+     */
+    public synchronized void render(@NonNull Bitmap bitmap) {
+        bitmap.eraseColor(0);
+        mCanvas.setBitmap(bitmap);
+        draw(mCanvas, bitmap.getWidth(), bitmap.getHeight());
+        mCanvas.setBitmap(null);
+    }
+
+    /**
+     * Draw the ring into the given canvas, centered in a box of the given size
+     *
+     * @param canvas the canvas to draw into
+     * @param width  width of the box
+     * @param height height of the box
+     */
+    public synchronized void draw(@NonNull Canvas canvas, int width, int height) {
+        prepare(width, height);
+        drawStatic(canvas);
+        drawProgressRing(canvas, mProgress, mProgressRingPaint);
+    }
+
+    /**
+     * Rebuild the bounds, paints and shaders if the size or the style changed
+     */
+    synchronized void prepare(int width, int height) {
+        if (width != mWidth || height != mHeight) {
+            mWidth = width;
+            mHeight = height;
+            mStyleChanged = true;
+        }
+        if (mStyleChanged) {
+            setupBounds();
+            setupPaints();
+            mStyleChanged = false;
+            // The ring sizes move the bounds the image is cropped into
+            mImageChanged = true;
+        }
+        if (mImageChanged) {
+            setupImage();
+            mImageChanged = false;
+        }
+    }
+
+    /**
+     * Draw the parts that don't depend on the progress, the image and the background ring
+     */
+    synchronized void drawStatic(@NonNull Canvas canvas) {
+        // Draw the image cropped in a circle
+        if (mImage != null) {
+            canvas.drawCircle(
+                    mRingBounds.centerX(),
+                    mRingBounds.centerY(),
+                    (mRingBounds.width() / 2) - (mBackgroundRingSize / 2),
+                    mImagePaint);
+        }
+        // Draw the background ring
+        if (mBackgroundRingSize > 0) {
+            canvas.drawArc(mRingBounds, ANGLE_360, ANGLE_360, false, mBackgroundRingPaint);
+        }
+    }
+
+    /**
+     * Draw the progress ring for the given progress with the given paint
+     */
+    synchronized void drawProgressRing(@NonNull Canvas canvas, float progress, @NonNull Paint paint) {
+        if (mProgressRingSize > 0) {
+            canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(progress), false, paint);
+        }
+    }
+
+    /**
+     * Copy the current progress ring paint, including its shader
+     */
+    synchronized void copyProgressRingPaint(@NonNull Paint paint) {
+        paint.set(mProgressRingPaint);
+    }
+
+    /**
+     * @return an immutable copy of every value that changes how the ring looks, but the progress
+     */
+    synchronized Style getStyle() {
+        return new Style(this);
+    }
+
+    private void setupBounds() {
+        float size = Math.min(mWidth, mHeight);
+        float left = (mWidth - size) / 2;
+        float top = (mHeight - size) / 2;
+        float offset = Math.max(mBackgroundRingSize, mProgressRingSize) / 2;
+        mRingBounds.set(left + offset, top + offset, left + size - offset, top + size - offset);
+    }
+
+    private void setupPaints() {
+        mBackgroundRingPaint.setColor(mBackgroundRingColor);
+        mBackgroundRingPaint.setStrokeWidth(mBackgroundRingSize);
+
+        mProgressRingPaint.setStrokeCap(mProgressRingCorner);
+        mProgressRingPaint.setStrokeWidth(mProgressRingSize);
+        mProgressRingPaint.setColor(mProgressRingColor);
+        mProgressRingPaint.setShader(null);
+
+        if (mProgressGradient != null && mProgressGradient.length > 0) {
+            int[] colors = mProgressGradient;
+            if (mIsJoinGradient) {
+                colors = new int[mProgressGradient.length + 1];
+                System.arraycopy(mProgressGradient, 0, colors, 0, mProgressGradient.length);
+                colors[colors.length - 1] = colors[0];
+            }
+            Shader gradient = new SweepGradient(mRingBounds.centerX(),
+                                                mRingBounds.centerY(),
+                                                colors, null);
+            mShaderMatrix.setRotate(-ANGLE_90, mRingBounds.centerX(), mRingBounds.centerY());
+            gradient.setLocalMatrix(mShaderMatrix);
+            mProgressRingPaint.setShader(gradient);
+            mProgressRingPaint.setColor(mProgressGradient[0]);
+        }
+    }
+
+    private void setupImage() {
+        if (mImage == null) {
+            mImagePaint.setShader(null);
+            return;
+        }
+        // Center crop the image into the ring
+        float size = mRingBounds.width();
+        float scale = Math.max(size / mImage.getWidth(), size / mImage.getHeight());
+        mImageMatrix.setScale(scale, scale);
+        mImageMatrix.postTranslate(mRingBounds.centerX() - mImage.getWidth() * scale / 2,
+                             mRingBounds.centerY() - mImage.getHeight() * scale / 2);
+        Shader shader = new BitmapShader(mImage, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        shader.setLocalMatrix(mImageMatrix);
+        mImagePaint.setShader(shader);
+    }
+
+    private float getSweepAngle(float progress) {
+        return (360f / mMax * progress);
+    }
+
+    /* *************************
+     * GETTERS & SETTERS
+     * *************************/
+
+    public synchronized float getMax() {
+        return mMax;
+    }
+
+    public synchronized void setMax(float max) {
+        mMax = max;
+    }
+
+    public synchronized float getProgress() {
+        return mProgress;
+    }
+
+    public synchronized void setProgress(float progress) {
+        if (progress < 0) {
+            mProgress = 0;
+        } else if (progress > mMax) {
+            mProgress = mMax;
+        } else {
+            mProgress = progress;
+        }
+    }
+
+    public synchronized float getProgressRingSize() {
+        return mProgressRingSize;
+    }
+
+    public synchronized void setProgressRingSize(float progressRingSize) {
+        mProgressRingSize = progressRingSize;
+        mStyleChanged = true;
+    }
+
+    public synchronized float getBackgroundRingSize() {
+        return mBackgroundRingSize;
+    }
+
+    public synchronized void setBackgroundRingSize(float backgroundRingSize) {
+        mBackgroundRingSize = backgroundRingSize;
+        mStyleChanged = true;
+    }
+
+    public synchronized int getBackgroundRingColor() {
+        return mBackgroundRingColor;
+    }
+
+    public synchronized void setBackgroundRingColor(int backgroundRingColor) {
+        mBackgroundRingColor = backgroundRingColor;
+        mStyleChanged = true;
+    }
+
+    public synchronized int getProgressRingColor() {
+        return mProgressRingColor;
+    }
+
+    public synchronized void setProgressRingColor(int progressRingColor) {
+        mProgressRingColor = progressRingColor;
+        mStyleChanged = true;
+    }
+
+    @Nullable
+    public synchronized int[] getProgressGradient() {
+        return mProgressGradient;
+    }
+
+    public synchronized void setProgressGradient(@Nullable int[] progressGradient) {
+        mProgressGradient = progressGradient;
+        mStyleChanged = true;
+    }
+
+    public synchronized boolean isJoinGradient() {
+        return mIsJoinGradient;
+    }
+
+    public synchronized void setJoinGradient(boolean isJoinGradient) {
+        mIsJoinGradient = isJoinGradient;
+        mStyleChanged = true;
+    }
+
+    public synchronized Paint.Cap getProgressRingCorner() {
+        return mProgressRingCorner;
+    }
+
+    public synchronized void setProgressRingCorner(@NonNull Paint.Cap progressRingCorner) {
+        mProgressRingCorner = progressRingCorner;
+        mStyleChanged = true;
+    }
+
+    @Nullable
+    public synchronized Bitmap getImage() {
+        return mImage;
+    }
+
+    /**
+     * Set an image to be center cropped in a circle inside the ring
+     *
+     * @param image the image or null to remove it
+     */
+    public synchronized void setImage(@Nullable Bitmap image) {
+        if (mImage != image) {
+            mImage = image;
+            mImageChanged = true;
+        }
+    }
+    /**
+     * Snapshot of the style of a renderer, the image is compared by identity and weakly referenced
+     */
+    static final class Style {
+        private final float                 mMax;
+        private final float                 mBackgroundRingSize;
+        private final float                 mProgressRingSize;
+        private final int                   mBackgroundRingColor;
+        private final int                   mProgressRingColor;
+        private final int[]                 mProgressGradient;
+        private final boolean               mIsJoinGradient;
+        private final Paint.Cap             mProgressRingCorner;
+        private final WeakReference<Bitmap> mImage;
+        private final int                   mHash;
+
+        Style(@NonNull CircularProgressRenderer renderer) {
+            mMax = renderer.mMax;
+            mBackgroundRingSize = renderer.mBackgroundRingSize;
+            mProgressRingSize = renderer.mProgressRingSize;
+            mBackgroundRingColor = renderer.mBackgroundRingColor;
+            mProgressRingColor = renderer.mProgressRingColor;
+            mProgressGradient = renderer.mProgressGradient != null
+                                ? renderer.mProgressGradient.clone() : null;
+            mIsJoinGradient = renderer.mIsJoinGradient;
+            mProgressRingCorner = renderer.mProgressRingCorner;
+            mImage = renderer.mImage != null ? new WeakReference<>(renderer.mImage) : null;
+
+            int hash = Float.floatToIntBits(mMax);
+            hash = 31 * hash + Float.floatToIntBits(mBackgroundRingSize);
+            hash = 31 * hash + Float.floatToIntBits(mProgressRingSize);
+            hash = 31 * hash + mBackgroundRingColor;
+            hash = 31 * hash + mProgressRingColor;
+            hash = 31 * hash + Arrays.hashCode(mProgressGradient);
+            hash = 31 * hash + (mIsJoinGradient ? 1 : 0);
+            hash = 31 * hash + mProgressRingCorner.ordinal();
+            hash = 31 * hash + System.identityHashCode(renderer.mImage);
+            mHash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Style)) {
+                return false;
+            }
+            Style style = (Style) o;
+            return Float.compare(style.mMax, mMax) == 0
+                   && Float.compare(style.mBackgroundRingSize, mBackgroundRingSize) == 0
+                   && Float.compare(style.mProgressRingSize, mProgressRingSize) == 0
+                   && mBackgroundRingColor == style.mBackgroundRingColor
+                   && mProgressRingColor == style.mProgressRingColor
+                   && Arrays.equals(mProgressGradient, style.mProgressGradient)
+                   && mIsJoinGradient == style.mIsJoinGradient
+                   && mProgressRingCorner == style.mProgressRingCorner
+                   && isSameImage(style);
+        }
+
+        private boolean isSameImage(@NonNull Style style) {
+            if (mImage == null || style.mImage == null) {
+                return mImage == style.mImage;
+            }
+            // Frames of a collected image are never hit again
+            Bitmap image = mImage.get();
+            return image != null && image == style.mImage.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return mHash;
+        }
+    }
+}
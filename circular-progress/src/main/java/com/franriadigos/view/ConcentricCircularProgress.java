@@ -0,0 +1,514 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+import android.util.AttributeSet;
+import android.view.View;
+import android.view.animation.OvershootInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+import static com.franriadigos.view.CircularProgressContract.ANGLE_360;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_90;
+import static com.franriadigos.view.CircularProgressContract.ANIMATION_DELAY;
+import static com.franriadigos.view.CircularProgressContract.ANIMATION_DURATION;
+import static com.franriadigos.view.CircularProgressContract.DEFAULT_BG_COLOR;
+import static com.franriadigos.view.CircularProgressContract.DEFAULT_RING_COLOR;
+
+/**
+ * Android custom view to draw several concentric progress rings in a single view.
+ * <p/>
+ * <b>Usage:</b>
+ * <br>Every ring has its own progress, size and color or gradient, ring 0 is the outer one.
+ * <br>To animate all the rings at once call {@link ConcentricCircularProgress#startAnimation()}
+ * <p/>
+ * <b>Features:</b>
+ * <ul style="margin-top:0;">
+ * <li>app:ringCount="3" - Number of concentric rings</li>
+ * <li>app:ringSpacing="4dp" - Space between two rings</li>
+ * <li>app:max="100" - Max value for every ring</li>
+ * <li>app:progress="50" - Initial progress value of every ring</li>
+ * <li>app:progressRingSize="20dp" - The size of every ring</li>
+ * <li>app:backgroundRingColor="@color/my_color" - The color of the background rings</li>
+ * <li>app:ringColors="@array/colors" - An array with the color of every ring
+ * (you must provide an array resource reference)</li>
+ * <li>app:progressRingCorner="ROUND" - Sets the corner style of the rings
+ * (by default is RECT -> Square)</li>
+ * </ul>
+ *
+ * @see #startAnimation()
+ * @see #getAnimator()
+ */
+public class ConcentricCircularProgress extends View {
+
+    /**
+     * Progress values
+     */
+    private float   mMax = 100;
+    private float[] mProgress        = new float[0];
+    private float[] mCurrentProgress = new float[0];
+
+    /**
+     * Animated values, from and to
+     */
+    private float[] mFromProgress = new float[0];
+    private float[] mToProgress   = new float[0];
+
+    /**
+     * Ring sizes and colors
+     */
+    private int     mRingCount;
+    private float   mRingSpacing;
+    private float[] mRingSizes            = new float[0];
+    private int[]   mRingColors           = new int[0];
+    private int[]   mBackgroundRingColors = new int[0];
+    private int[][] mRingGradients        = new int[0][];
+
+    /**
+     * Default progress ring cap
+     */
+    private Paint.Cap mProgressRingCorner = Paint.Cap.BUTT;
+
+    /*
+     * Animator
+     */
+    private ValueAnimator mAnimator;
+
+    /*
+     * Paints, shared by all the rings
+     */
+    private Paint mProgressRingPaint;
+    private Paint mBackgroundRingPaint;
+
+    /*
+     * Shared geometry, the center and the radius of every ring
+     */
+    private float    mCenterX;
+    private float    mCenterY;
+    private float[]  mRingRadii   = new float[0];
+    private Shader[] mRingShaders = new Shader[0];
+    private RectF    mRingBounds = new RectF();
+
+    public ConcentricCircularProgress(Context context) {
+        this(context, null);
+    }
+
+    public ConcentricCircularProgress(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public ConcentricCircularProgress(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        loadFromAttributes(attrs, defStyleAttr);
+        setupAnimator();
+    }
+
+    private void loadFromAttributes(@Nullable AttributeSet attrs, int defStyleAttr) {
+        final TypedArray a = getContext().obtainStyledAttributes(
+                attrs, R.styleable.ConcentricCircularProgress, defStyleAttr, 0);
+
+        setRingCount(a.getInt(R.styleable.ConcentricCircularProgress_ringCount, 3));
+        mMax = a.getFloat(R.styleable.ConcentricCircularProgress_max, mMax);
+        mRingSpacing = a.getDimension(R.styleable.ConcentricCircularProgress_ringSpacing, 0);
+        mProgressRingCorner = getCap(a.getInt(
+                R.styleable.ConcentricCircularProgress_progressRingCorner, Paint.Cap.BUTT.ordinal()));
+
+        float progress = a.getFloat(R.styleable.ConcentricCircularProgress_progress, 0);
+        float ringSize = a.getDimension(R.styleable.ConcentricCircularProgress_progressRingSize, 40);
+        int backgroundColor = a.getColor(
+                R.styleable.ConcentricCircularProgress_backgroundRingColor, DEFAULT_BG_COLOR);
+
+        int[] colors = null;
+        try {
+            if (a.hasValue(R.styleable.ConcentricCircularProgress_ringColors)) {
+                colors = AttributesHelper.loadColors(
+                        a, R.styleable.ConcentricCircularProgress_ringColors, this);
+            }
+        } catch (Exception e) {
+            if(! isInEditMode()) {
+                throw e;
+            }
+        }
+
+        for (int i = 0; i < mRingCount; i++) {
+            mProgress[i] = clamp(progress);
+            mRingSizes[i] = ringSize;
+            mBackgroundRingColors[i] = backgroundColor;
+            if (colors != null && colors.length > 0) {
+                mRingColors[i] = colors[i % colors.length];
+            }
+        }
+
+        a.recycle();
+    }
+
+    /**
+     * Measure to square the view
+     *
+     * @param widthMeasureSpec  int
+     * @param heightMeasureSpec int
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+
+        int widthWithoutPadding = getMeasuredWidth() - getPaddingLeft() - getPaddingRight();
+        int heightWithoutPadding = getMeasuredHeight() - getPaddingTop() - getPaddingBottom();
+        int size = Math.min(widthWithoutPadding, heightWithoutPadding);
+
+        // Report back the measured size.
+        setMeasuredDimension(
+                size + getPaddingLeft() + getPaddingRight(),
+                size + getPaddingTop() + getPaddingBottom());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        setupBounds(w, h);
+        setupPaints();
+        setupShaders();
+
+        invalidate();
+    }
+
+    /**
+     * Compute the radius of every ring once, they all share the same center
+     */
+    private void setupBounds(int w, int h) {
+        int width = w - getPaddingLeft() - getPaddingRight();
+        int height = h - getPaddingTop() - getPaddingBottom();
+
+        mCenterX = getPaddingLeft() + width / 2f;
+        mCenterY = getPaddingTop() + height / 2f;
+
+        float outerRadius = Math.min(width, height) / 2f;
+        for (int i = 0; i < mRingCount; i++) {
+            mRingRadii[i] = outerRadius - mRingSizes[i] / 2;
+            outerRadius -= mRingSizes[i] + mRingSpacing;
+        }
+    }
+
+    private void setupPaints() {
+        mProgressRingPaint = new Paint();
+        mProgressRingPaint.setAntiAlias(true);
+        mProgressRingPaint.setStrokeCap(mProgressRingCorner);
+        mProgressRingPaint.setStyle(Paint.Style.STROKE);
+
+        mBackgroundRingPaint = new Paint();
+        mBackgroundRingPaint.setAntiAlias(true);
+        mBackgroundRingPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    private void setupShaders() {
+        Matrix matrix = null;
+        for (int i = 0; i < mRingCount; i++) {
+            if (mRingGradients[i] == null) {
+                mRingShaders[i] = null;
+                continue;
+            }
+            if (matrix == null) {
+                matrix = new Matrix();
+                matrix.postRotate(-ANGLE_90, mCenterX, mCenterY);
+            }
+            mRingShaders[i] = new SweepGradient(mCenterX, mCenterY, mRingGradients[i], null);
+            mRingShaders[i].setLocalMatrix(matrix);
+        }
+    }
+
+    private void setupAnimator() {
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.setDuration(ANIMATION_DURATION);
+        mAnimator.setInterpolator(new OvershootInterpolator());
+        mAnimator.setStartDelay(ANIMATION_DELAY);
+        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                float fraction = (float) animation.getAnimatedValue();
+                for (int i = 0; i < mRingCount; i++) {
+                    mCurrentProgress[i] = mFromProgress[i]
+                                          + (mToProgress[i] - mFromProgress[i]) * fraction;
+                    mProgress[i] = mCurrentProgress[i];
+                }
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * It will start animating every ring to the progress value set
+     * <br>Default animation duration is 1200 milliseconds
+     * <br/>It starts with a default delay of 500 milliseconds
+     * <br/>You can get an instance of the animator with the method {@link
+     * ConcentricCircularProgress#getAnimator()} and Override these values
+     *
+     * @see ValueAnimator
+     */
+    public void startAnimation() {
+        for (int i = 0; i < mRingCount; i++) {
+            mFromProgress[i] = mCurrentProgress[i];
+            mToProgress[i] = mProgress[i];
+            mProgress[i] = mCurrentProgress[i];
+        }
+        mAnimator.start();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mProgressRingPaint == null) {
+            return;
+        }
+
+        for (int i = 0; i < mRingCount; i++) {
+            float radius = mRingRadii[i];
+            if (radius <= 0 || mRingSizes[i] <= 0) {
+                continue;
+            }
+            mRingBounds.set(mCenterX - radius, mCenterY - radius,
+                            mCenterX + radius, mCenterY + radius);
+
+            // Draw the background ring
+            mBackgroundRingPaint.setStrokeWidth(mRingSizes[i]);
+            mBackgroundRingPaint.setColor(mBackgroundRingColors[i]);
+            canvas.drawArc(mRingBounds, ANGLE_360, ANGLE_360, false, mBackgroundRingPaint);
+
+            // Draw the progress ring
+            mProgressRingPaint.setStrokeWidth(mRingSizes[i]);
+            mProgressRingPaint.setShader(mRingShaders[i]);
+            mProgressRingPaint.setColor(mRingColors[i]);
+            canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(i), false, mProgressRingPaint);
+        }
+    }
+
+    private float getSweepAngle(int ring) {
+        return (360f / mMax * mProgress[ring]);
+    }
+
+    private float clamp(float progress) {
+        if (progress < 0) {
+            return 0;
+        } else if (progress > mMax) {
+            return mMax;
+        }
+        return progress;
+    }
+
+    private void checkRing(int ring) {
+        if (ring < 0 || ring >= mRingCount) {
+            throw new IndexOutOfBoundsException("Ring " + ring + " of " + mRingCount);
+        }
+    }
+
+    /**
+     * Geometry or shaders changed, recompute them if the view was already measured
+     */
+    private void invalidateRings() {
+        if (mProgressRingPaint != null) {
+            setupBounds(getWidth(), getHeight());
+            setupShaders();
+        }
+        invalidate();
+    }
+
+    /* *************************
+     * GETTERS & SETTERS
+     * *************************/
+
+    /**
+     * Get an instance of the current {@link ValueAnimator}
+     * <br/>It animates a fraction from 0 to 1 that is applied to every ring
+     *
+     * @return {@link ValueAnimator}
+     */
+    public ValueAnimator getAnimator() {
+        return mAnimator;
+    }
+
+    public int getRingCount() {
+        return mRingCount;
+    }
+
+    /**
+     * Set the number of rings, keeping the values of the existing ones
+     *
+     * @param ringCount int
+     */
+    public void setRingCount(int ringCount) {
+        if (ringCount < 0) {
+            throw new IllegalArgumentException("Ring count must be positive");
+        }
+        if (ringCount == mRingCount) {
+            return;
+        }
+        int previousCount = mRingCount;
+        mRingCount = ringCount;
+
+        mProgress = Arrays.copyOf(mProgress, ringCount);
+        mCurrentProgress = Arrays.copyOf(mCurrentProgress, ringCount);
+        mFromProgress = Arrays.copyOf(mFromProgress, ringCount);
+        mToProgress = Arrays.copyOf(mToProgress, ringCount);
+        mRingSizes = Arrays.copyOf(mRingSizes, ringCount);
+        mRingRadii = new float[ringCount];
+        mRingColors = Arrays.copyOf(mRingColors, ringCount);
+        mBackgroundRingColors = Arrays.copyOf(mBackgroundRingColors, ringCount);
+
+        int[][] gradients = new int[ringCount][];
+        Shader[] shaders = new Shader[ringCount];
+        for (int i = 0; i < ringCount; i++) {
+            if (i < previousCount) {
+                gradients[i] = mRingGradients[i];
+            } else {
+                // New rings take the style of the previous one
+                mRingSizes[i] = i > 0 ? mRingSizes[i - 1] : 40;
+                mRingColors[i] = DEFAULT_RING_COLOR;
+                mBackgroundRingColors[i] = i > 0 ? mBackgroundRingColors[i - 1] : DEFAULT_BG_COLOR;
+            }
+        }
+        mRingGradients = gradients;
+        mRingShaders = shaders;
+
+        invalidateRings();
+    }
+
+    public float getMax() {
+        return mMax;
+    }
+
+    public void setMax(float max) {
+        mMax = max;
+        invalidate();
+    }
+
+    public float getRingSpacing() {
+        return mRingSpacing;
+    }
+
+    public void setRingSpacing(float ringSpacing) {
+        mRingSpacing = ringSpacing;
+        invalidateRings();
+    }
+
+    public float getCurrentProgress(int ring) {
+        checkRing(ring);
+        return mCurrentProgress[ring];
+    }
+
+    public float getProgress(int ring) {
+        checkRing(ring);
+        return mProgress[ring];
+    }
+
+    public void setProgress(int ring, float progress) {
+        checkRing(ring);
+        mProgress[ring] = clamp(progress);
+        invalidate();
+    }
+
+    /**
+     * Set the progress of every ring at once
+     *
+     * @param progress one value per ring
+     */
+    public void setProgress(@NonNull float[] progress) {
+        int count = Math.min(progress.length, mRingCount);
+        for (int i = 0; i < count; i++) {
+            mProgress[i] = clamp(progress[i]);
+        }
+        invalidate();
+    }
+
+    public float getRingSize(int ring) {
+        checkRing(ring);
+        return mRingSizes[ring];
+    }
+
+    public void setRingSize(int ring, float ringSize) {
+        checkRing(ring);
+        mRingSizes[ring] = ringSize;
+        invalidateRings();
+    }
+
+    public int getRingColor(int ring) {
+        checkRing(ring);
+        return mRingColors[ring];
+    }
+
+    public void setRingColor(int ring, int color) {
+        checkRing(ring);
+        mRingColors[ring] = color;
+        invalidate();
+    }
+
+    public int getBackgroundRingColor(int ring) {
+        checkRing(ring);
+        return mBackgroundRingColors[ring];
+    }
+
+    public void setBackgroundRingColor(int ring, int color) {
+        checkRing(ring);
+        mBackgroundRingColors[ring] = color;
+        invalidate();
+    }
+
+    @Nullable
+    public int[] getRingGradient(int ring) {
+        checkRing(ring);
+        return mRingGradients[ring];
+    }
+
+    /**
+     * Set a gradient for the given ring, it takes precedence over the ring color
+     *
+     * @param ring     int
+     * @param gradient an array of colors or null to remove it
+     */
+    public void setRingGradient(int ring, @Nullable int[] gradient) {
+        checkRing(ring);
+        mRingGradients[ring] = gradient;
+        invalidateRings();
+    }
+
+    public Paint.Cap getProgressRingCorner() {
+        return mProgressRingCorner;
+    }
+
+    public void setProgressRingCorner(int progressRingCorner) {
+        mProgressRingCorner = getCap(progressRingCorner);
+        if (mProgressRingPaint != null) {
+            mProgressRingPaint.setStrokeCap(mProgressRingCorner);
+        }
+        invalidate();
+    }
+
+    public Paint.Cap getCap(int id) {
+        return AttributesHelper.getCap(id);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.franriadigos.view;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.content.Context;
@@ -26,9 +28,12 @@ import android.graphics.Paint;
 import android.graphics.RectF;
 import android.graphics.Shader;
 import android.graphics.SweepGradient;
+import android.os.Build;
+import android.os.Parcelable;
 import android.util.AttributeSet;
 import android.view.View;
-import android.view.animation.Interpolator;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.animation.OvershootInterpolator;
 import android.widget.FrameLayout;
 
@@ -36,6 +41,7 @@ import androidx.annotation.AttrRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StyleRes;
+import androidx.annotation.VisibleForTesting;
 
 /**
  * Android custom view to load a circular progress indicator based on {@link FrameLayout}.
@@ -58,11 +64,29 @@ import androidx.annotation.StyleRes;
  * <li>app:progressGradient="@array/colors" - An array of colors for a gradient indicator
  * (you must provide an array resource reference)</li>
  * <li>app:joinGradient="true" - By enabling this you get a smooth gradient on the ring corners</li>
+ * <li>app:gradientFollowSweep="true" - Stretches the gradient over the current progress
+ * instead of the full circle</li>
  * <li>app:gradientFactor="1.0" - Adjust the gradient factor of the ring</li>
  * <li>app:progressRingOutline="true" - Sets the ring as an Outline based on the padding of the
  * {@link FrameLayout}, by default is false</li>
  * <li>app:progressRingCorner="ROUND" - Sets the corner style of the progress indicator
  * (by default is RECT -> Square)</li>
+ * <li>app:segmentGap="2" - Space in degrees between the progress segments, see
+ * {@link #setProgressSegments(float[], int[])}</li>
+ * <li>app:tickCount="60" - Draws the rings as a dial of tick marks</li>
+ * <li>app:tickWidth="2dp" - The width of every tick mark</li>
+ * <li>app:progressColorStops="@array/my_colors" - Colors of the progress ring by progress</li>
+ * <li>app:progressColorStopValues="@array/my_values" - Progress of every color stop
+ * (by default spread evenly from 0 to max)</li>
+ * <li>app:glowRadius="8dp" - Draws a soft glow under the progress ring</li>
+ * <li>app:glowColor="@color/my_color" - The color of the glow
+ * (by default the color of the progress ring)</li>
+ * <li>app:showLabel="true" - Draws the progress percentage in the center of the ring</li>
+ * <li>app:labelTextSize="16sp" - The text size of the label</li>
+ * <li>app:labelColor="@color/my_color" - The color of the label</li>
+ * <li>app:renderQuality="low" - Draws with cheaper settings, by default it is lowered only
+ * for small rings or low end devices</li>
+ * <li>app:maxFrameRate="30" - Caps the frames per second of the progress animations</li>
  * </ul>
  *
  * @author Fran Riadigos, based on the Circle-Progress-View of Jakob Grabner
@@ -93,21 +117,98 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
     private int[]   mProgressGradient;
     private boolean mIsJoinGradient;
     private float   mGradientFactor;
+    private boolean mGradientFollowSweep;
+    private SweepGradientBank mGradientBank;
 
     /**
      * Default progress ring cap
      */
     private Paint.Cap mProgressRingCorner = Paint.Cap.BUTT;
 
+    /**
+     * Progress segments
+     */
+    private RingSegments mSegments;
+    private float        mSegmentGap;
+
+    /**
+     * Tick marks
+     */
+    private RingTicks mTicks;
+    private int       mTickCount;
+    private float     mTickWidth = 4;
+
+    /**
+     * Progress announcements of accessibility services
+     */
+    private final ProgressAccessibility mAccessibility = new ProgressAccessibility(this);
+
+    /**
+     * Colors of the progress ring by progress
+     */
+    private RingColorStops mColorStops;
+
+    /**
+     * Glow under the progress ring
+     */
+    private RingGlow mGlow;
+    private float    mGlowRadius;
+    private int      mGlowColor;
+
+    /**
+     * Center label
+     */
+    private RingLabel mLabel;
+    private float     mLabelTextSize = 40;
+    private int       mLabelColor    = DEFAULT_RING_COLOR;
+
     /*
      * Animator
      */
     private ObjectAnimator mAnimator;
+    private boolean        mAnimatorRunning;
 
     /*
-     * Default interpolator
+     * Retargeting animation
      */
-    private Interpolator mDefaultInterpolator = new OvershootInterpolator();
+    private ProgressSpring mSpring;
+
+    /*
+     * Suspends the animations while the view can't be seen
+     */
+    private final AnimationPolicy mAnimationPolicy =
+            new AnimationPolicy(this, new AnimationPolicy.Callback() {
+                @Override
+                public void onActiveChanged(boolean active) {
+                    if (active) {
+                        resumeAnimations();
+                    } else {
+                        pauseAnimations();
+                    }
+                }
+            });
+
+    /*
+     * Values of the last animation, kept in the saved state
+     */
+    private float mAnimationFrom;
+    private float mAnimationTo;
+
+    /*
+     * Paints and shaders are built on the first draw after a size or style change
+     */
+    private boolean mPaintsDirty = true;
+
+    /*
+     * Drawing quality
+     */
+    private int     mRenderQuality = QUALITY_AUTO;
+    private boolean mLowQuality;
+
+    /*
+     * Batched style changes
+     */
+    private StyleEditor mStyleEditor;
 
     /*
      * Paints
@@ -120,6 +221,23 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
      */
     private RectF mRingBounds;
 
+    /*
+     * Layer drawing the ring apart from the children
+     */
+    private RingLayer mRingLayer;
+
+    /*
+     * Background ring cached apart from the progress, a single arc is not worth a bitmap
+     */
+    private final StaticLayer mStaticLayer = new StaticLayer(new StaticLayer.Renderer() {
+        @Override
+        public void drawStatic(@NonNull Canvas canvas) {
+            if (mTicks == null && mBackgroundRingSize > 0) {
+                canvas.drawArc(mRingBounds, ANGLE_360, ANGLE_360, false, mBackgroundRingPaint);
+            }
+        }
+    }, false);
+
     public FrameLayoutCircularProgress(Context context) {
         this(context, null);
     }
@@ -137,7 +255,6 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         super(context, attrs, defStyleAttr, defStyleRes);
         setWillNotDraw(false);
         new AttributesHelper(this).loadFromAttributes(attrs, defStyleAttr, 0);
-        setupAnimator();
 
         // Apply ring as outline
         if (isProgressRingOutline()) {
@@ -164,9 +281,9 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         int size;
 
         // Obtain size of the unique children and measure this layout accordingly
-        if (getChildCount() > 0) {
+        View child = getContentChild();
+        if (child != null) {
             int minSize = Math.max(getMinimumWidth(), getMinimumHeight());
-            View child = getChildAt(0);
             size = Math.max(child.getMeasuredWidth(), child.getMeasuredHeight());
             size = Math.max(minSize, size);
         } else {
@@ -179,6 +296,20 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
                 size + getPaddingTop() + getPaddingBottom());
     }
 
+    /**
+     * @return the first child, skipping the one that draws the ring layer
+     */
+    @Nullable
+    private View getContentChild() {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (mRingLayer == null || !mRingLayer.isRingView(child)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
     /**
      * This method is called after measuring the dimensions of MATCH_PARENT and WRAP_CONTENT Save
      * these dimensions to setup the bounds and paints
@@ -188,11 +319,10 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         super.onSizeChanged(w, h, oldw, oldh);
 
         setupBounds(w, h);
-        setupBackgroundRingPaint();
-        setupProgressRingPaint();
+        mPaintsDirty = true;
 
         requestLayout();
-        invalidate();
+        invalidateRing();
     }
 
     /**
@@ -204,7 +334,10 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         float paddingOffset = (paddingSize / 2);
 
         // Create the ring bounds Rect
-        mRingBounds = new RectF(
+        if (mRingBounds == null) {
+            mRingBounds = new RectF();
+        }
+        mRingBounds.set(
                 paddingSize - paddingOffset,
                 paddingSize - paddingOffset,
                 w - paddingOffset,
@@ -219,7 +352,17 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         mProgressRingPaint.setStrokeWidth(mProgressRingSize);
         mProgressRingPaint.setColor(mProgressRingColor);
 
-        if (mProgressGradient != null) {
+        if (mSegments != null) {
+            mSegments.setupPaint(mProgressRingSize, mProgressRingCorner);
+        }
+
+        mGradientBank = null;
+        if (mProgressGradient != null && mGradientFollowSweep) {
+            mGradientBank = new SweepGradientBank();
+            mGradientBank.setup(mRingBounds.centerX(), mRingBounds.centerY(), mProgressGradient);
+            mProgressRingPaint.setShader(mGradientBank.get(getSweepAngle()));
+            mProgressRingPaint.setColor(mProgressGradient[0]);
+        } else if (mProgressGradient != null) {
             int[] colors = mProgressGradient;
             float[] positions;
             if (isJoinGradient()) {
@@ -254,27 +397,126 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
             mProgressRingPaint.getShader().setLocalMatrix(matrix);
             mProgressRingPaint.setColor(mProgressGradient[0]);
         }
+        applyColorStop();
+    }
+
+    private void setupTicks() {
+        mStaticLayer.invalidate();
+        if (mTickCount > 0) {
+            if (mTicks == null) {
+                mTicks = new RingTicks();
+            }
+            mTicks.setup(mRingBounds, mTickCount, Math.max(mBackgroundRingSize, mProgressRingSize));
+            mTicks.setupPaints(mProgressRingPaint, mBackgroundRingPaint, mTickWidth);
+        } else {
+            mTicks = null;
+        }
+    }
+
+    /**
+     * Build the paints and shaders left pending by a size or style change
+     */
+    @VisibleForTesting
+    void ensurePaints() {
+        if (mPaintsDirty && mRingBounds != null) {
+            setupBounds(getWidth(), getHeight());
+            setupQuality();
+            setupBackgroundRingPaint();
+            setupProgressRingPaint();
+            setupTicks();
+            setupGlow();
+            mPaintsDirty = false;
+        }
+    }
+
+    private void setupQuality() {
+        float diameter = mRingBounds.width() + Math.max(mBackgroundRingSize, mProgressRingSize);
+        mLowQuality = RenderQuality.isLow(mRenderQuality, this, diameter);
+        mAnimationPolicy.setLowQuality(mLowQuality);
+    }
+
+    private void setupGlow() {
+        if (mGlowRadius > 0) {
+            if (mGlow == null) {
+                mGlow = new RingGlow();
+            }
+            mGlow.setup(getWidth(), getHeight(), mRingBounds, mProgressRingSize,
+                        mGlowRadius, mProgressRingCorner);
+            mGlow.setColor(getGlowTint());
+        } else {
+            mGlow = null;
+        }
+    }
+
+    private int getGlowTint() {
+        if (mGlowColor != 0) {
+            return mGlowColor;
+        }
+        return mProgressGradient != null ? mProgressGradient[0] : mProgressRingPaint.getColor();
+    }
+
+    /**
+     * Apply the color of the current progress to the paints in place
+     */
+    private void applyColorStop() {
+        if (mColorStops == null || mProgressGradient != null || mProgressRingPaint == null) {
+            return;
+        }
+        int color = mColorStops.getColor(mProgress);
+        mProgressRingPaint.setColor(color);
+        if (mTicks != null) {
+            mTicks.setLitColor(color);
+        }
+        if (mGlow != null && mGlowColor == 0) {
+            mGlow.setColor(color);
+        }
     }
 
     private void setupBackgroundRingPaint() {
         mBackgroundRingPaint = new Paint();
         mBackgroundRingPaint.setColor(mBackgroundRingColor);
-        mBackgroundRingPaint.setAntiAlias(true);
+        mBackgroundRingPaint.setAntiAlias(!mLowQuality);
         mBackgroundRingPaint.setStyle(Paint.Style.STROKE);
         mBackgroundRingPaint.setStrokeWidth(mBackgroundRingSize);
+        mStaticLayer.invalidate();
     }
 
     private void setupAnimator() {
         mAnimator = ObjectAnimator.ofFloat(
-                this, "progress", this.getProgress(), this.getProgress());
+                this, "currentProgress", this.getProgress(), this.getProgress());
         mAnimator.setDuration(ANIMATION_DURATION);
-        mAnimator.setInterpolator(mDefaultInterpolator);
+        mAnimator.setInterpolator(new OvershootInterpolator());
         mAnimator.setStartDelay(ANIMATION_DELAY);
         mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
             public void onAnimationUpdate(ValueAnimator animation) {
-                setCurrentProgress((float) animation.getAnimatedValue());
-                setProgress(getCurrentProgress());
+                // The last frame is always drawn when the animation ends
+                if (mAnimationPolicy.isFrameDue()) {
+                    setProgress(getCurrentProgress());
+                }
+            }
+        });
+        mAnimator.addListener(new AnimatorListenerAdapter() {
+            private boolean mCanceled;
+
+            @Override
+            public void onAnimationStart(Animator animation) {
+                mAnimatorRunning = true;
+                mCanceled = false;
+            }
+
+            @Override
+            public void onAnimationCancel(Animator animation) {
+                mCanceled = true;
+            }
+
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                mAnimatorRunning = false;
+                // Draw and announce the final value, its frame may have been skipped
+                if (!mCanceled) {
+                    setProgress(getCurrentProgress());
+                }
             }
         });
     }
@@ -283,6 +525,7 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
      * It will start animating the progress ring to the progress value set
      * <br>Default animation duration is 1200 milliseconds
      * <br/>It starts with a default delay of 500 milliseconds
+     * <br/>It is paused while the view can't be seen and resumed when it shows again
      * <br/>You can get an instance of the animator with the method {@link
      * FrameLayoutCircularProgress#getAnimator()} and Override these values
      *
@@ -290,26 +533,311 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
      */
     @SuppressWarnings("unused")
     public void startAnimation() {
-        float finalProgress = this.getProgress();
-        this.setProgress(this.getCurrentProgress());
-        mAnimator.setFloatValues(this.getCurrentProgress(), finalProgress);
+        if (mSpring != null) {
+            mSpring.cancel();
+        }
+        mAnimationFrom = this.getCurrentProgress();
+        mAnimationTo = this.getProgress();
+        getAnimator().setFloatValues(mAnimationFrom, mAnimationTo);
+        // Running from the start call, the start listener may only be called after the delay
+        mAnimatorRunning = true;
         mAnimator.start();
+        // Draw the start value during the delay, it is not announced once the animator started
+        this.setProgress(mAnimationFrom);
+        if (!mAnimationPolicy.isActive()) {
+            mAnimator.pause();
+        }
+    }
+
+    /**
+     * It will animate the progress ring to the given value without any delay
+     * <br/>Calling it again while animating absorbs the new value keeping the current velocity,
+     * so it suits live progress updates better than {@link FrameLayoutCircularProgress#startAnimation()}
+     *
+     * @param progress the new progress value
+     */
+    @Override
+    public void animateProgressTo(float progress) {
+        if (mAnimator != null && mAnimator.isStarted()) {
+            mAnimator.cancel();
+        }
+        if (mSpring == null) {
+            mSpring = new ProgressSpring(new ProgressSpring.Callback() {
+                @Override
+                public void onSpringUpdate(float value) {
+                    setCurrentProgress(value);
+                    // Always draw the last frame
+                    if (!mSpring.isRunning() || mAnimationPolicy.isFrameDue()) {
+                        setProgress(getCurrentProgress());
+                    }
+                }
+            });
+        }
+        if (!mSpring.isRunning()) {
+            mSpring.setPosition(mProgress);
+        }
+        mSpring.setTimeScale(mAnimationPolicy.getDurationScale());
+        mSpring.animateTo(Math.max(0, Math.min(mMax, progress)));
+        if (!mAnimationPolicy.isActive()) {
+            mSpring.pause();
+        }
+    }
+
+    private void pauseAnimations() {
+        if (mAnimator != null && mAnimator.isStarted()) {
+            mAnimator.pause();
+        }
+        if (mSpring != null) {
+            mSpring.pause();
+        }
+    }
+
+    private void resumeAnimations() {
+        if (mAnimator != null && mAnimator.isPaused()) {
+            mAnimator.resume();
+        }
+        if (mSpring != null) {
+            mSpring.setTimeScale(mAnimationPolicy.getDurationScale());
+            mSpring.resume();
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        if (mRingLayer != null) {
+            mRingLayer.layout(right - left, bottom - top);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAnimationPolicy.setAttached(true);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAnimationPolicy.setAttached(false);
+        mStaticLayer.release();
+        mAccessibility.cancel();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        ProgressSavedState state = new ProgressSavedState(super.onSaveInstanceState());
+        state.progress = mProgress;
+        state.currentProgress = mCurrentProgress;
+        if (mAnimator != null && mAnimator.isStarted()) {
+            state.animation = ProgressSavedState.ANIMATION_ANIMATOR;
+            state.animationFrom = mAnimationFrom;
+            state.animationTo = mAnimationTo;
+            state.animationPlayTime = mAnimator.getCurrentPlayTime();
+        } else if (mSpring != null && mSpring.getPosition() != mSpring.getTarget()) {
+            state.animation = ProgressSavedState.ANIMATION_SPRING;
+            state.currentProgress = mSpring.getPosition();
+            state.animationTo = mSpring.getTarget();
+        }
+        return state;
+    }
+
+    /**
+     * Restore the progress, a running animation continues from where it was
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof ProgressSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        ProgressSavedState savedState = (ProgressSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        // Drop any animation started again since the view was recreated
+        if (mAnimator != null) {
+            mAnimator.cancel();
+        }
+        if (mSpring != null) {
+            mSpring.cancel();
+        }
+        setCurrentProgress(savedState.currentProgress);
+        switch (savedState.animation) {
+            case ProgressSavedState.ANIMATION_ANIMATOR:
+                // Don't announce the value the animation resumes from
+                mAnimatorRunning = true;
+                setProgress(savedState.currentProgress);
+                mAnimationFrom = savedState.animationFrom;
+                mAnimationTo = savedState.animationTo;
+                getAnimator().setFloatValues(mAnimationFrom, mAnimationTo);
+                mAnimator.start();
+                mAnimator.setCurrentPlayTime(savedState.animationPlayTime);
+                if (!mAnimationPolicy.isActive()) {
+                    mAnimator.pause();
+                }
+                break;
+            case ProgressSavedState.ANIMATION_SPRING:
+                setProgress(savedState.currentProgress);
+                animateProgressTo(savedState.animationTo);
+                break;
+            default:
+                setProgress(savedState.progress);
+                break;
+        }
+    }
+
+    @Override
+    public CharSequence getAccessibilityClassName() {
+        return ProgressAccessibility.getClassName();
+    }
+
+    @Override
+    public void onInitializeAccessibilityEvent(@NonNull AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        ProgressAccessibility.onInitializeEvent(event, mMax, mProgress);
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(@NonNull AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        ProgressAccessibility.onInitializeNodeInfo(info, mMax, mProgress);
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mAnimationPolicy.setWindowVisible(visibility == VISIBLE);
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mAnimationPolicy.setVisible(isVisible);
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // Before Nougat there is no aggregated visibility,
+        // it can also be called from the super constructor
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && mAnimationPolicy != null) {
+            mAnimationPolicy.setVisible(isShown());
+        }
     }
 
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
 
-        // Draw the background ring
-        if (mBackgroundRingSize > 0) {
-            canvas.drawArc(mRingBounds, ANGLE_360, ANGLE_360, false, mBackgroundRingPaint);
+        // The child of the ring layer draws it otherwise
+        if (mRingLayer == null) {
+            drawRing(canvas);
         }
-        // Draw the progress ring
-        if (mProgressRingSize > 0) {
-            canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(), false, mProgressRingPaint);
+    }
+
+    /**
+     * Draw the label over the children, so a centered child doesn't cover it
+     */
+    @Override
+    protected void dispatchDraw(@NonNull Canvas canvas) {
+        super.dispatchDraw(canvas);
+
+        if (mLabel != null && mRingBounds != null) {
+            mLabel.draw(canvas, mRingBounds.centerX(), mRingBounds.centerY(), mProgress, mMax);
         }
     }
 
+    private void drawRing(@NonNull Canvas canvas) {
+        if (mRingBounds == null) {
+            return;
+        }
+        ensurePaints();
+        // Draw the cached background ring
+        mStaticLayer.draw(canvas, getWidth(), getHeight());
+        if (mTicks != null) {
+            // Draw the tick marks instead of the rings
+            mTicks.draw(canvas, (int) (mTickCount * mProgress / mMax));
+        } else {
+            // Draw the glow under the progress ring
+            if (mGlow != null && mSegments == null) {
+                mGlow.draw(canvas, mRingBounds, getSweepAngle());
+            }
+            // Draw the progress ring
+            if (mProgressRingSize > 0) {
+                if (mSegments != null) {
+                    mSegments.draw(canvas, mRingBounds, -ANGLE_90);
+                } else {
+                    if (mGradientBank != null) {
+                        // Only swap the prebuilt gradient of the current sweep
+                        mProgressRingPaint.setShader(mGradientBank.get(getSweepAngle()));
+                    }
+                    canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(), false, mProgressRingPaint);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the bounds and paints once after a batch of style changes
+     */
+    private void applyStyle(boolean relayout) {
+        if (mRingBounds != null) {
+            setupBounds(getWidth(), getHeight());
+            mPaintsDirty = true;
+        }
+        if (relayout) {
+            requestLayout();
+        }
+        invalidateRing();
+    }
+
+    /**
+     * Update the current paints in place during a style animation
+     */
+    private void updateStyle() {
+        if (mRingBounds != null && !mPaintsDirty) {
+            setupBounds(getWidth(), getHeight());
+            mBackgroundRingPaint.setColor(mBackgroundRingColor);
+            mBackgroundRingPaint.setStrokeWidth(mBackgroundRingSize);
+            mStaticLayer.invalidate();
+            mProgressRingPaint.setStrokeWidth(mProgressRingSize);
+            if (mSegments != null) {
+                mSegments.setupPaint(mProgressRingSize, mProgressRingCorner);
+            }
+            if (mProgressGradient == null) {
+                mProgressRingPaint.setColor(mProgressRingColor);
+            }
+            setupTicks();
+            applyColorStop();
+            if (mGlow != null) {
+                mGlow.setColor(getGlowTint());
+            }
+        }
+        invalidateRing();
+    }
+
+    /**
+     * Redraw only the layer of the ring when it is enabled
+     */
+    private void invalidateRing() {
+        if (mRingLayer != null) {
+            mRingLayer.invalidate();
+            if (mLabel != null) {
+                // The label is drawn by the container
+                invalidate();
+            }
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * @return true while an animation is moving the progress towards its final value
+     */
+    private boolean isAnimating() {
+        return mAnimatorRunning || (mSpring != null && mSpring.isRunning());
+    }
+
     private float getSweepAngle() {
         return (360f / mMax * mProgress);
     }
@@ -325,9 +853,62 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
      * @return {@link ObjectAnimator}
      */
     public ObjectAnimator getAnimator() {
+        if (mAnimator == null) {
+            setupAnimator();
+        }
         return mAnimator;
     }
 
+    @NonNull
+    @Override
+    public Editor edit() {
+        if (mStyleEditor == null) {
+            mStyleEditor = new StyleEditor(this, new StyleEditor.Callback() {
+                @Override
+                public void onStyleApplied(boolean relayout) {
+                    applyStyle(relayout);
+                }
+
+                @Override
+                public void onStyleAnimated() {
+                    updateStyle();
+                }
+            });
+        }
+        return mStyleEditor.begin();
+    }
+
+    public boolean isRingLayerEnabled() {
+        return mRingLayer != null;
+    }
+
+    /**
+     * Draw the ring on its own layer, still under the children, so progress changes only
+     * record the ring again and the ring is not recorded again for other changes.
+     * <br/>The ring is drawn by a child view added at index 0, that can't be clicked nor
+     * focused, turn the layer off before removing every child.
+     *
+     * @param enabled whether the ring is drawn on its own layer
+     */
+    public void setRingLayerEnabled(boolean enabled) {
+        if (enabled == (mRingLayer != null)) {
+            return;
+        }
+        if (enabled) {
+            mRingLayer = new RingLayer(this, new RingLayer.Renderer() {
+                @Override
+                public void drawRing(@NonNull Canvas canvas) {
+                    FrameLayoutCircularProgress.this.drawRing(canvas);
+                }
+            });
+        } else {
+            RingLayer ringLayer = mRingLayer;
+            mRingLayer = null;
+            ringLayer.release();
+        }
+        invalidate();
+    }
+
     @Override
     public float getMax() {
         return mMax;
@@ -336,6 +917,13 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
     @Override
     public void setMax(float max) {
         mMax = max;
+        if (mSegments != null) {
+            mSegments.setMax(max);
+        }
+        if (mColorStops != null) {
+            mColorStops.setMax(max);
+            applyColorStop();
+        }
     }
 
     @Override
@@ -362,7 +950,58 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         } else {
             this.mProgress = progress;
         }
-        invalidate();
+        applyColorStop();
+        mAccessibility.onProgressChanged(isAnimating());
+        invalidateRing();
+    }
+
+    @Override
+    public int getRenderQuality() {
+        return mRenderQuality;
+    }
+
+    @Override
+    public void setRenderQuality(int renderQuality) {
+        mRenderQuality = renderQuality;
+        mPaintsDirty = true;
+        invalidateRing();
+    }
+
+    @Override
+    public long getAccessibilityInterval() {
+        return mAccessibility.getInterval();
+    }
+
+    @Override
+    public void setAccessibilityInterval(long intervalMillis) {
+        mAccessibility.setInterval(intervalMillis);
+    }
+
+    @Override
+    public boolean isProgressVisible() {
+        return mAnimationPolicy.isActive();
+    }
+
+    @Override
+    public void addOnProgressVisibilityChangeListener(
+            @NonNull OnProgressVisibilityChangeListener listener) {
+        mAnimationPolicy.addListener(listener);
+    }
+
+    @Override
+    public void removeOnProgressVisibilityChangeListener(
+            @NonNull OnProgressVisibilityChangeListener listener) {
+        mAnimationPolicy.removeListener(listener);
+    }
+
+    @Override
+    public int getMaxFrameRate() {
+        return mAnimationPolicy.getMaxFrameRate();
+    }
+
+    @Override
+    public void setMaxFrameRate(int maxFrameRate) {
+        mAnimationPolicy.setMaxFrameRate(maxFrameRate);
     }
 
     @Override
@@ -435,6 +1074,16 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
         this.mIsJoinGradient = isJoinGradient;
     }
 
+    @Override
+    public boolean isGradientFollowSweep() {
+        return mGradientFollowSweep;
+    }
+
+    @Override
+    public void setGradientFollowSweep(boolean gradientFollowSweep) {
+        mGradientFollowSweep = gradientFollowSweep;
+    }
+
     @Override
     public float getGradientFactor() {
         return mGradientFactor;
@@ -457,11 +1106,184 @@ public class FrameLayoutCircularProgress extends FrameLayout implements Circular
 
     @Override
     public Paint.Cap getCap(int id) {
-        for (Paint.Cap value : Paint.Cap.values()) {
-            if (id == value.ordinal()) {
-                return value;
+        return AttributesHelper.getCap(id);
+    }
+
+    @Override
+    public void setProgressSegments(@Nullable float[] values, @Nullable int[] colors) {
+        if (values == null || colors == null) {
+            mSegments = null;
+        } else {
+            if (mSegments == null) {
+                mSegments = new RingSegments();
+                mSegments.setMax(mMax);
+                mSegments.setGap(mSegmentGap);
+                mSegments.setupPaint(mProgressRingSize, mProgressRingCorner);
+            }
+            mSegments.setSegments(values, colors);
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public void setProgressColorStops(@Nullable float[] stops, @Nullable int[] colors) {
+        if (stops == null || colors == null) {
+            mColorStops = null;
+            if (mProgressRingPaint != null && mProgressGradient == null) {
+                mProgressRingPaint.setColor(mProgressRingColor);
+                if (mTicks != null) {
+                    mTicks.setLitColor(mProgressRingColor);
+                }
+                if (mGlow != null) {
+                    mGlow.setColor(getGlowTint());
+                }
             }
+        } else {
+            if (mColorStops == null) {
+                mColorStops = new RingColorStops();
+                mColorStops.setMax(mMax);
+            }
+            mColorStops.setStops(stops, colors);
+            applyColorStop();
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public void setProgressSegment(int index, float value) {
+        if (mSegments == null) {
+            throw new IllegalStateException("There are no progress segments");
+        }
+        mSegments.setSegment(index, value);
+        invalidateRing();
+    }
+
+    @Override
+    public float getSegmentGap() {
+        return mSegmentGap;
+    }
+
+    @Override
+    public void setSegmentGap(float segmentGap) {
+        mSegmentGap = segmentGap;
+        if (mSegments != null) {
+            mSegments.setGap(segmentGap);
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    @Override
+    public void setTickCount(int tickCount) {
+        mTickCount = Math.max(0, tickCount);
+        if (!mPaintsDirty) {
+            setupTicks();
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public float getTickWidth() {
+        return mTickWidth;
+    }
+
+    @Override
+    public void setTickWidth(float tickWidth) {
+        mTickWidth = tickWidth;
+        if (!mPaintsDirty) {
+            setupTicks();
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public float getGlowRadius() {
+        return mGlowRadius;
+    }
+
+    @Override
+    public void setGlowRadius(float glowRadius) {
+        mGlowRadius = glowRadius;
+        if (!mPaintsDirty) {
+            setupGlow();
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public int getGlowColor() {
+        return mGlowColor;
+    }
+
+    @Override
+    public void setGlowColor(int glowColor) {
+        mGlowColor = glowColor;
+        if (mGlow != null) {
+            mGlow.setColor(getGlowTint());
+        }
+        invalidateRing();
+    }
+
+    @Override
+    public boolean isLabelEnabled() {
+        return mLabel != null;
+    }
+
+    @Override
+    public void setLabelEnabled(boolean labelEnabled) {
+        if (labelEnabled && mLabel == null) {
+            mLabel = new RingLabel();
+            mLabel.setupPaint(mLabelTextSize, mLabelColor);
+        } else if (!labelEnabled) {
+            mLabel = null;
+        }
+        invalidate();
+    }
+
+    @Override
+    public float getLabelTextSize() {
+        return mLabelTextSize;
+    }
+
+    @Override
+    public void setLabelTextSize(float labelTextSize) {
+        mLabelTextSize = labelTextSize;
+        if (mLabel != null) {
+            mLabel.setupPaint(mLabelTextSize, mLabelColor);
         }
-        return Paint.Cap.BUTT;
+        invalidate();
+    }
+
+    @Override
+    public int getLabelColor() {
+        return mLabelColor;
+    }
+
+    @Override
+    public void setLabelColor(int labelColor) {
+        mLabelColor = labelColor;
+        if (mLabel != null) {
+            mLabel.setupPaint(mLabelTextSize, mLabelColor);
+        }
+        invalidate();
+    }
+
+    @NonNull
+    @Override
+    public LabelFormatter getLabelFormatter() {
+        return mLabel != null ? mLabel.getFormatter() : RingLabel.PERCENT;
+    }
+
+    @Override
+    public void setLabelFormatter(@NonNull LabelFormatter labelFormatter) {
+        if (mLabel == null) {
+            setLabelEnabled(true);
+        }
+        mLabel.setFormatter(labelFormatter);
+        invalidate();
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the latest {@link ProgressFrameSequence}s, keyed by style, size and progress endpoints.
+ * <br/>The cache is bounded by the memory used by the frames.
+ *
+ * @see #prerenderAsync(CircularProgressRenderer, int, int, float, float, Executor, Callback)
+ */
+public class FrameSequenceCache {
+
+    /**
+     * Receives a frame sequence on the main thread
+     */
+    public interface Callback {
+        void onFramesReady(@NonNull ProgressFrameSequence sequence);
+    }
+
+    private static FrameSequenceCache sInstance;
+
+    private final LruCache<Key, ProgressFrameSequence> mCache;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * @return the shared cache, bounded to a sixteenth of the available memory
+     */
+    @NonNull
+    public static synchronized FrameSequenceCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new FrameSequenceCache((int) (Runtime.getRuntime().maxMemory() / 16));
+        }
+        return sInstance;
+    }
+
+    /**
+     * @param maxBytes max memory used by the cached frames
+     */
+    public FrameSequenceCache(int maxBytes) {
+        mCache = new LruCache<Key, ProgressFrameSequence>(maxBytes) {
+            @Override
+            protected int sizeOf(Key key, ProgressFrameSequence value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * @return the cached frames of the animation or null if they were not rendered yet
+     */
+    @Nullable
+    public ProgressFrameSequence get(@NonNull CircularProgressRenderer renderer,
+                                     int width, int height, float from, float to) {
+        return mCache.get(new Key(renderer.getStyle(), width, height, from, to));
+    }
+
+    /**
+     * Get the cached frames of the animation, rendering them if needed
+     */
+    @NonNull
+    @WorkerThread
+    public ProgressFrameSequence obtain(@NonNull CircularProgressRenderer renderer,
+                                        int width, int height, float from, float to) {
+        Key key = new Key(renderer.getStyle(), width, height, from, to);
+        ProgressFrameSequence sequence = mCache.get(key);
+        if (sequence == null) {
+            sequence = ProgressFrameSequence.prerender(renderer, width, height, from, to);
+            mCache.put(key, sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Get the frames of the animation, rendering them on the given executor if needed
+     *
+     * @param callback called on the main thread, right away if the frames are cached
+     */
+    public void prerenderAsync(@NonNull final CircularProgressRenderer renderer,
+                               final int width, final int height, final float from, final float to,
+                               @NonNull Executor executor, @NonNull final Callback callback) {
+        ProgressFrameSequence sequence = get(renderer, width, height, from, to);
+        if (sequence != null) {
+            callback.onFramesReady(sequence);
+            return;
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final ProgressFrameSequence sequence = obtain(renderer, width, height, from, to);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFramesReady(sequence);
+                    }
+                });
+            }
+        });
+    }
+
+    public void evictAll() {
+        mCache.evictAll();
+    }
+
+    private static final class Key {
+        private final CircularProgressRenderer.Style mStyle;
+        private final int   mWidth;
+        private final int   mHeight;
+        private final float mFrom;
+        private final float mTo;
+
+        Key(@NonNull CircularProgressRenderer.Style style, int width, int height,
+            float from, float to) {
+            mStyle = style;
+            mWidth = width;
+            mHeight = height;
+            mFrom = from;
+            mTo = to;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mWidth == key.mWidth
+                   && mHeight == key.mHeight
+                   && Float.compare(key.mFrom, mFrom) == 0
+                   && Float.compare(key.mTo, mTo) == 0
+                   && mStyle.equals(key.mStyle);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = mStyle.hashCode();
+            hash = 31 * hash + mWidth;
+            hash = 31 * hash + mHeight;
+            hash = 31 * hash + Float.floatToIntBits(mFrom);
+            hash = 31 * hash + Float.floatToIntBits(mTo);
+            return hash;
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.franriadigos.view;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.content.Context;
@@ -23,24 +25,36 @@ import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.Path;
 import android.graphics.RectF;
 import android.graphics.Shader;
 import android.graphics.SweepGradient;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Parcelable;
 import android.util.AttributeSet;
-import android.view.animation.Interpolator;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.animation.OvershootInterpolator;
 import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import androidx.appcompat.widget.AppCompatImageView;
 
+import java.util.concurrent.Executor;
+
 /**
  * Android custom view to load a circular progress indicator based on {@link ImageView}.
  * <p/>
  * <b>Usage:</b>
  * <br>You can set {@link ImageView} xml attributes as usual.
  * <br><b>You don't need to transform or crop to rounded images.</b>
+ * <br>Bitmaps can be cropped off the main thread with {@link #setAsyncCrop(boolean)}
  * <br>To animate the progress indicator call {@link ImageViewCircularProgress#startAnimation()}
  * <p/>
  * <b>Features:</b>
@@ -57,11 +71,29 @@ import androidx.appcompat.widget.AppCompatImageView;
  * <li>app:progressGradient="@array/colors" - An array of colors for a gradient indicator
  * (you must provide an array resource reference)</li>
  * <li>app:joinGradient="true" - By enabling this you get a smooth gradient on the ring corners</li>
+ * <li>app:gradientFollowSweep="true" - Stretches the gradient over the current progress
+ * instead of the full circle</li>
  * <li>app:gradientFactor="1.0" - Adjust the gradient factor of the ring</li>
  * <li>app:progressRingOutline="true" - Sets the ring as an Outline based on the padding of the
  * {@link ImageView}, by default is false</li>
  * <li>app:progressRingCorner="ROUND" - Sets the corner style of the progress indicator
  * (by default is RECT -> Square)</li>
+ * <li>app:segmentGap="2" - Space in degrees between the progress segments, see
+ * {@link #setProgressSegments(float[], int[])}</li>
+ * <li>app:tickCount="60" - Draws the rings as a dial of tick marks</li>
+ * <li>app:tickWidth="2dp" - The width of every tick mark</li>
+ * <li>app:progressColorStops="@array/my_colors" - Colors of the progress ring by progress</li>
+ * <li>app:progressColorStopValues="@array/my_values" - Progress of every color stop
+ * (by default spread evenly from 0 to max)</li>
+ * <li>app:glowRadius="8dp" - Draws a soft glow under the progress ring</li>
+ * <li>app:glowColor="@color/my_color" - The color of the glow
+ * (by default the color of the progress ring)</li>
+ * <li>app:showLabel="true" - Draws the progress percentage in the center of the ring</li>
+ * <li>app:labelTextSize="16sp" - The text size of the label</li>
+ * <li>app:labelColor="@color/my_color" - The color of the label</li>
+ * <li>app:renderQuality="low" - Draws with cheaper settings, by default it is lowered only
+ * for small rings or low end devices</li>
+ * <li>app:maxFrameRate="30" - Caps the frames per second of the progress animations</li>
  * </ul>
  *
  * @author Fran Riadigos, based on the Circle-Progress-View of Jakob Grabner
@@ -92,21 +124,98 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
     private int[]   mProgressGradient;
     private boolean mIsJoinGradient;
     private float   mGradientFactor;
+    private boolean mGradientFollowSweep;
+    private SweepGradientBank mGradientBank;
 
     /**
      * Default progress ring cap
      */
     private Paint.Cap mProgressRingCorner = Paint.Cap.BUTT;
 
+    /**
+     * Progress segments
+     */
+    private RingSegments mSegments;
+    private float        mSegmentGap;
+
+    /**
+     * Tick marks
+     */
+    private RingTicks mTicks;
+    private int       mTickCount;
+    private float     mTickWidth = 4;
+
+    /**
+     * Progress announcements of accessibility services
+     */
+    private final ProgressAccessibility mAccessibility = new ProgressAccessibility(this);
+
+    /**
+     * Colors of the progress ring by progress
+     */
+    private RingColorStops mColorStops;
+
+    /**
+     * Glow under the progress ring
+     */
+    private RingGlow mGlow;
+    private float    mGlowRadius;
+    private int      mGlowColor;
+
+    /**
+     * Center label
+     */
+    private RingLabel mLabel;
+    private float     mLabelTextSize = 40;
+    private int       mLabelColor    = DEFAULT_RING_COLOR;
+
     /*
      * Animator
      */
     private ObjectAnimator mAnimator;
+    private boolean        mAnimatorRunning;
+
+    /*
+     * Retargeting animation
+     */
+    private ProgressSpring mSpring;
 
     /*
-     * Default interpolator
+     * Suspends the animations while the view can't be seen
      */
-    private Interpolator mDefaultInterpolator = new OvershootInterpolator();
+    private final AnimationPolicy mAnimationPolicy =
+            new AnimationPolicy(this, new AnimationPolicy.Callback() {
+                @Override
+                public void onActiveChanged(boolean active) {
+                    if (active) {
+                        resumeAnimations();
+                    } else {
+                        pauseAnimations();
+                    }
+                }
+            });
+
+    /*
+     * Values of the last animation, kept in the saved state
+     */
+    private float mAnimationFrom;
+    private float mAnimationTo;
+
+    /*
+     * Paints and shaders are built on the first draw after a size or style change
+     */
+    private boolean mPaintsDirty = true;
+
+    /*
+     * Drawing quality
+     */
+    private int     mRenderQuality = QUALITY_AUTO;
+    private boolean mLowQuality;
+
+    /*
+     * Batched style changes
+     */
+    private StyleEditor mStyleEditor;
 
     /*
      * Default sizes
@@ -140,6 +249,27 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
     private Paint  mMaskPaint;
     private Bitmap mOriginalBitmap;
     private Canvas mCacheCanvas;
+    private Path   mCropPath;
+
+    /*
+     * Image and background ring cached apart from the progress
+     */
+    private final StaticLayer mStaticLayer = new StaticLayer(new StaticLayer.Renderer() {
+        @Override
+        public void drawStatic(@NonNull Canvas canvas) {
+            ImageViewCircularProgress.this.drawStatic(canvas);
+        }
+    });
+
+    /*
+     * Asynchronous circular crop
+     */
+    private boolean  mAsyncCrop;
+    private Executor mCropExecutor;
+    private Bitmap   mCropSource;
+    private Bitmap   mCroppedBitmap;
+    private int      mCropGeneration;
+    private RectF    mCropBounds = new RectF();
 
     public ImageViewCircularProgress(Context context) {
         this(context, null);
@@ -152,7 +282,6 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
     public ImageViewCircularProgress(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
         new AttributesHelper(this).loadFromAttributes(attrs, defStyleAttr, 0);
-        setupAnimator();
     }
 
     /**
@@ -213,8 +342,12 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
         }
 
         setupBounds();
-        setupBackgroundRingPaint();
-        setupProgressRingPaint();
+        mPaintsDirty = true;
+
+        // The crop depends on the size
+        if (mAsyncCrop) {
+            startCrop();
+        }
 
         requestLayout();
         invalidate();
@@ -255,7 +388,10 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
         int height = getHeight();
 
         // Create the ring bounds Rect
-        mRingBounds = new RectF(
+        if (mRingBounds == null) {
+            mRingBounds = new RectF();
+        }
+        mRingBounds.set(
                 mPaddingLeft + mOffsetRingSize,
                 mPaddingTop + mOffsetRingSize,
                 width - mPaddingRight - mOffsetRingSize,
@@ -280,7 +416,17 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
         mProgressRingPaint.setStrokeWidth(mProgressRingSize);
         mProgressRingPaint.setColor(mProgressRingColor);
 
-        if (mProgressGradient != null) {
+        if (mSegments != null) {
+            mSegments.setupPaint(mProgressRingSize, mProgressRingCorner);
+        }
+
+        mGradientBank = null;
+        if (mProgressGradient != null && mGradientFollowSweep) {
+            mGradientBank = new SweepGradientBank();
+            mGradientBank.setup(mRingBounds.centerX(), mRingBounds.centerY(), mProgressGradient);
+            mProgressRingPaint.setShader(mGradientBank.get(getSweepAngle()));
+            mProgressRingPaint.setColor(mProgressGradient[0]);
+        } else if (mProgressGradient != null) {
             int[] colors = mProgressGradient;
             float[] positions;
             if (isJoinGradient()) {
@@ -315,27 +461,130 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
             mProgressRingPaint.getShader().setLocalMatrix(matrix);
             mProgressRingPaint.setColor(mProgressGradient[0]);
         }
+        applyColorStop();
+    }
+
+    private void setupTicks() {
+        if (mTickCount > 0) {
+            if (mTicks == null) {
+                mTicks = new RingTicks();
+            }
+            mTicks.setup(mRingBounds, mTickCount, Math.max(mBackgroundRingSize, mProgressRingSize));
+            mTicks.setupPaints(mProgressRingPaint, mBackgroundRingPaint, mTickWidth);
+        } else {
+            mTicks = null;
+        }
+    }
+
+    /**
+     * Build the paints and shaders left pending by a size or style change
+     */
+    @VisibleForTesting
+    void ensurePaints() {
+        if (mPaintsDirty && mRingBounds != null) {
+            setupBounds();
+            setupQuality();
+            setupBackgroundRingPaint();
+            setupProgressRingPaint();
+            setupTicks();
+            setupGlow();
+            mPaintsDirty = false;
+        }
+    }
+
+    private void setupQuality() {
+        float diameter = mRingBounds.width() + Math.max(mBackgroundRingSize, mProgressRingSize);
+        mLowQuality = RenderQuality.isLow(mRenderQuality, this, diameter);
+        mAnimationPolicy.setLowQuality(mLowQuality);
+        if (mLowQuality) {
+            // The image is clipped, drop the mask
+            mMaskPaint = null;
+            mOriginalBitmap = null;
+            mCacheCanvas = null;
+        }
+    }
+
+    private void setupGlow() {
+        if (mGlowRadius > 0) {
+            if (mGlow == null) {
+                mGlow = new RingGlow();
+            }
+            mGlow.setup(getWidth(), getHeight(), mRingBounds, mProgressRingSize,
+                        mGlowRadius, mProgressRingCorner);
+            mGlow.setColor(getGlowTint());
+        } else {
+            mGlow = null;
+        }
+    }
+
+    private int getGlowTint() {
+        if (mGlowColor != 0) {
+            return mGlowColor;
+        }
+        return mProgressGradient != null ? mProgressGradient[0] : mProgressRingPaint.getColor();
+    }
+
+    /**
+     * Apply the color of the current progress to the paints in place
+     */
+    private void applyColorStop() {
+        if (mColorStops == null || mProgressGradient != null || mProgressRingPaint == null) {
+            return;
+        }
+        int color = mColorStops.getColor(mProgress);
+        mProgressRingPaint.setColor(color);
+        if (mTicks != null) {
+            mTicks.setLitColor(color);
+        }
+        if (mGlow != null && mGlowColor == 0) {
+            mGlow.setColor(color);
+        }
     }
 
     private void setupBackgroundRingPaint() {
         mBackgroundRingPaint = new Paint();
         mBackgroundRingPaint.setColor(mBackgroundRingColor);
-        mBackgroundRingPaint.setAntiAlias(true);
+        mBackgroundRingPaint.setAntiAlias(!mLowQuality);
         mBackgroundRingPaint.setStyle(Paint.Style.STROKE);
         mBackgroundRingPaint.setStrokeWidth(mBackgroundRingSize);
     }
 
     private void setupAnimator() {
         mAnimator = ObjectAnimator.ofFloat(
-                this, "progress", this.getProgress(), this.getProgress());
+                this, "currentProgress", this.getProgress(), this.getProgress());
         mAnimator.setDuration(ANIMATION_DURATION);
-        mAnimator.setInterpolator(mDefaultInterpolator);
+        mAnimator.setInterpolator(new OvershootInterpolator());
         mAnimator.setStartDelay(ANIMATION_DELAY);
         mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
             public void onAnimationUpdate(ValueAnimator animation) {
-                setCurrentProgress((float) animation.getAnimatedValue());
-                setProgress(getCurrentProgress());
+                // The last frame is always drawn when the animation ends
+                if (mAnimationPolicy.isFrameDue()) {
+                    setProgress(getCurrentProgress());
+                }
+            }
+        });
+        mAnimator.addListener(new AnimatorListenerAdapter() {
+            private boolean mCanceled;
+
+            @Override
+            public void onAnimationStart(Animator animation) {
+                mAnimatorRunning = true;
+                mCanceled = false;
+            }
+
+            @Override
+            public void onAnimationCancel(Animator animation) {
+                mCanceled = true;
+            }
+
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                mAnimatorRunning = false;
+                // Draw and announce the final value, its frame may have been skipped
+                if (!mCanceled) {
+                    setProgress(getCurrentProgress());
+                }
             }
         });
     }
@@ -344,6 +593,7 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
      * It will start animating the progress ring to the progress value set
      * <br>Default animation duration is 1200 milliseconds
      * <br/>It starts with a default delay of 500 milliseconds
+     * <br/>It is paused while the view can't be seen and resumed when it shows again
      * <br/>You can get an instance of the animator with the method {@link
      * ImageViewCircularProgress#getAnimator()} and Override these values
      *
@@ -351,42 +601,425 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
      */
     @SuppressWarnings("unused")
     public void startAnimation() {
-        float finalProgress = this.getProgress();
-        this.setProgress(this.getCurrentProgress());
-        mAnimator.setFloatValues(this.getCurrentProgress(), finalProgress);
+        if (mSpring != null) {
+            mSpring.cancel();
+        }
+        mAnimationFrom = this.getCurrentProgress();
+        mAnimationTo = this.getProgress();
+        getAnimator().setFloatValues(mAnimationFrom, mAnimationTo);
+        // Running from the start call, the start listener may only be called after the delay
+        mAnimatorRunning = true;
         mAnimator.start();
+        // Draw the start value during the delay, it is not announced once the animator started
+        this.setProgress(mAnimationFrom);
+        if (!mAnimationPolicy.isActive()) {
+            mAnimator.pause();
+        }
     }
 
+    /**
+     * It will animate the progress ring to the given value without any delay
+     * <br/>Calling it again while animating absorbs the new value keeping the current velocity,
+     * so it suits live progress updates better than {@link ImageViewCircularProgress#startAnimation()}
+     *
+     * @param progress the new progress value
+     */
     @Override
-    protected void onDraw(@NonNull Canvas canvas) {
-        // Setup the mask at first
-        if (mMaskPaint == null) {
-            setupMask();
+    public void animateProgressTo(float progress) {
+        if (mAnimator != null && mAnimator.isStarted()) {
+            mAnimator.cancel();
+        }
+        if (mSpring == null) {
+            mSpring = new ProgressSpring(new ProgressSpring.Callback() {
+                @Override
+                public void onSpringUpdate(float value) {
+                    setCurrentProgress(value);
+                    // Always draw the last frame
+                    if (!mSpring.isRunning() || mAnimationPolicy.isFrameDue()) {
+                        setProgress(getCurrentProgress());
+                    }
+                }
+            });
+        }
+        if (!mSpring.isRunning()) {
+            mSpring.setPosition(mProgress);
+        }
+        mSpring.setTimeScale(mAnimationPolicy.getDurationScale());
+        mSpring.animateTo(Math.max(0, Math.min(mMax, progress)));
+        if (!mAnimationPolicy.isActive()) {
+            mSpring.pause();
+        }
+    }
+
+    private void pauseAnimations() {
+        if (mAnimator != null && mAnimator.isStarted()) {
+            mAnimator.pause();
+        }
+        if (mSpring != null) {
+            mSpring.pause();
+        }
+    }
+
+    private void resumeAnimations() {
+        if (mAnimator != null && mAnimator.isPaused()) {
+            mAnimator.resume();
+        }
+        if (mSpring != null) {
+            mSpring.setTimeScale(mAnimationPolicy.getDurationScale());
+            mSpring.resume();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mAnimationPolicy.setAttached(true);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mAnimationPolicy.setAttached(false);
+        mStaticLayer.release();
+        mAccessibility.cancel();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        ProgressSavedState state = new ProgressSavedState(super.onSaveInstanceState());
+        state.progress = mProgress;
+        state.currentProgress = mCurrentProgress;
+        if (mAnimator != null && mAnimator.isStarted()) {
+            state.animation = ProgressSavedState.ANIMATION_ANIMATOR;
+            state.animationFrom = mAnimationFrom;
+            state.animationTo = mAnimationTo;
+            state.animationPlayTime = mAnimator.getCurrentPlayTime();
+        } else if (mSpring != null && mSpring.getPosition() != mSpring.getTarget()) {
+            state.animation = ProgressSavedState.ANIMATION_SPRING;
+            state.currentProgress = mSpring.getPosition();
+            state.animationTo = mSpring.getTarget();
+        }
+        return state;
+    }
+
+    /**
+     * Restore the progress, a running animation continues from where it was
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof ProgressSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        ProgressSavedState savedState = (ProgressSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        // Drop any animation started again since the view was recreated
+        if (mAnimator != null) {
+            mAnimator.cancel();
+        }
+        if (mSpring != null) {
+            mSpring.cancel();
+        }
+        setCurrentProgress(savedState.currentProgress);
+        switch (savedState.animation) {
+            case ProgressSavedState.ANIMATION_ANIMATOR:
+                // Don't announce the value the animation resumes from
+                mAnimatorRunning = true;
+                setProgress(savedState.currentProgress);
+                mAnimationFrom = savedState.animationFrom;
+                mAnimationTo = savedState.animationTo;
+                getAnimator().setFloatValues(mAnimationFrom, mAnimationTo);
+                mAnimator.start();
+                mAnimator.setCurrentPlayTime(savedState.animationPlayTime);
+                if (!mAnimationPolicy.isActive()) {
+                    mAnimator.pause();
+                }
+                break;
+            case ProgressSavedState.ANIMATION_SPRING:
+                setProgress(savedState.currentProgress);
+                animateProgressTo(savedState.animationTo);
+                break;
+            default:
+                setProgress(savedState.progress);
+                break;
+        }
+    }
+
+    @Override
+    public CharSequence getAccessibilityClassName() {
+        return ProgressAccessibility.getClassName();
+    }
+
+    @Override
+    public void onInitializeAccessibilityEvent(@NonNull AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        ProgressAccessibility.onInitializeEvent(event, mMax, mProgress);
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(@NonNull AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        ProgressAccessibility.onInitializeNodeInfo(info, mMax, mProgress);
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        mAnimationPolicy.setWindowVisible(visibility == VISIBLE);
+    }
+
+    @Override
+    public void onVisibilityAggregated(boolean isVisible) {
+        super.onVisibilityAggregated(isVisible);
+        mAnimationPolicy.setVisible(isVisible);
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        // Before Nougat there is no aggregated visibility,
+        // it can also be called from the super constructor
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N && mAnimationPolicy != null) {
+            mAnimationPolicy.setVisible(isShown());
+        }
+    }
+
+    @Override
+    public void setImageDrawable(@Nullable Drawable drawable) {
+        super.setImageDrawable(drawable);
+        onImageChanged();
+    }
+
+    @Override
+    public void setImageResource(int resId) {
+        super.setImageResource(resId);
+        onImageChanged();
+    }
+
+    @Override
+    public void setImageURI(@Nullable Uri uri) {
+        super.setImageURI(uri);
+        onImageChanged();
+    }
+
+    /**
+     * Drop the current crop and crop the new image if it is a bitmap
+     */
+    private void onImageChanged() {
+        if (!mAsyncCrop) {
+            return;
         }
+        mCropGeneration++;
+        mCroppedBitmap = null;
+        Drawable drawable = getDrawable();
+        mCropSource = drawable instanceof BitmapDrawable
+                      ? ((BitmapDrawable) drawable).getBitmap()
+                      : null;
+        startCrop();
+    }
+
+    /**
+     * Crop the current bitmap on the crop executor and swap it in on the main thread
+     */
+    private void startCrop() {
+        if (mCropSource == null || mRingBounds == null) {
+            return;
+        }
+        final Bitmap source = mCropSource;
+        final int size = (int) Math.ceil(getCropRadius() * 2);
+        final int generation = ++mCropGeneration;
+        mCroppedBitmap = null;
+        if (size <= 0) {
+            return;
+        }
+
+        // The same image may have been cropped already by another view
+        final CircularBitmapCache cache = CircularBitmapCache.getInstance();
+        Bitmap cached = cache.get(source, size);
+        if (cached != null) {
+            mCroppedBitmap = cached;
+            invalidate();
+            return;
+        }
+
+        getCropExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                // Another view may have queued the same crop
+                Bitmap bitmap = cache.peek(source, size);
+                if (bitmap == null) {
+                    bitmap = CircularCrop.crop(source, size);
+                    cache.put(source, size, bitmap);
+                }
+                final Bitmap cropped = bitmap;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Discard it if the image or the size changed meanwhile
+                        if (generation == mCropGeneration) {
+                            mCroppedBitmap = cropped;
+                            invalidate();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Any invalidation of the ImageView, like a new image, matrix or color filter, also
+     * draws the cached static parts again
+     */
+    @Override
+    public void invalidate() {
+        // It can be called from the super constructor
+        if (mStaticLayer != null) {
+            mStaticLayer.invalidate();
+        }
+        super.invalidate();
+    }
+
+    /**
+     * Redraw only the parts that change with the progress
+     */
+    private void invalidateProgress() {
+        super.invalidate();
+    }
+
+    private float getCropRadius() {
+        return (mRingBounds.width() / 2) - (mBackgroundRingSize / 2);
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        ensurePaints();
+
+        // Draw the cached image and background ring
+        mStaticLayer.draw(canvas, getWidth(), getHeight());
 
-        // Cache the canvas
-        if (mCacheCanvas == null) {
-            mCacheCanvas = new Canvas(mOriginalBitmap);
+        if (mTicks != null) {
+            // Draw the tick marks instead of the rings
+            mTicks.draw(canvas, (int) (mTickCount * mProgress / mMax));
+        } else {
+            // Draw the glow under the progress ring
+            if (mGlow != null && mSegments == null) {
+                mGlow.draw(canvas, mRingBounds, getSweepAngle());
+            }
+            // Draw the progress ring
+            if (mProgressRingSize > 0) {
+                if (mSegments != null) {
+                    mSegments.draw(canvas, mRingBounds, -ANGLE_90);
+                } else {
+                    if (mGradientBank != null) {
+                        // Only swap the prebuilt gradient of the current sweep
+                        mProgressRingPaint.setShader(mGradientBank.get(getSweepAngle()));
+                    }
+                    canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(), false, mProgressRingPaint);
+                }
+            }
+        }
+        // Draw the label
+        if (mLabel != null) {
+            mLabel.draw(canvas, mRingBounds.centerX(), mRingBounds.centerY(), mProgress, mMax);
         }
+    }
+
+    /**
+     * Draw the parts that don't change with the progress
+     */
+    private void drawStatic(@NonNull Canvas canvas) {
+        if (mAsyncCrop && mCropSource != null) {
+            // Only the ring is drawn until the crop is ready
+            if (mCroppedBitmap != null) {
+                float radius = getCropRadius();
+                mCropBounds.set(mRingBounds.centerX() - radius, mRingBounds.centerY() - radius,
+                                mRingBounds.centerX() + radius, mRingBounds.centerY() + radius);
+                canvas.drawBitmap(mCroppedBitmap, null, mCropBounds, null);
+            }
+        } else if (mLowQuality) {
+            // Clip the image instead of masking it through a bitmap
+            if (mCropPath == null) {
+                mCropPath = new Path();
+            }
+            mCropPath.rewind();
+            mCropPath.addCircle(mRingBounds.centerX(), mRingBounds.centerY(), getCropRadius(),
+                                Path.Direction.CW);
+            canvas.save();
+            canvas.clipPath(mCropPath);
+            super.onDraw(canvas);
+            canvas.restore();
+        } else {
+            // Setup the mask at first
+            if (mMaskPaint == null) {
+                setupMask();
+            }
 
-        // ImageView
-        super.onDraw(mCacheCanvas);
+            // Cache the canvas
+            if (mCacheCanvas == null) {
+                mCacheCanvas = new Canvas(mOriginalBitmap);
+            }
 
-        // Crop ImageView resource to a circle
-        canvas.drawCircle(
-                mRingBounds.centerX(),
-                mRingBounds.centerY(),
-                (mRingBounds.width() / 2) - (mBackgroundRingSize / 2),
-                mMaskPaint);
+            // ImageView
+            super.onDraw(mCacheCanvas);
+
+            // Crop ImageView resource to a circle
+            canvas.drawCircle(
+                    mRingBounds.centerX(),
+                    mRingBounds.centerY(),
+                    getCropRadius(),
+                    mMaskPaint);
+        }
 
         // Draw the background ring
-        if (mBackgroundRingSize > 0) {
+        if (mTicks == null && mBackgroundRingSize > 0) {
             canvas.drawArc(mRingBounds, ANGLE_360, ANGLE_360, false, mBackgroundRingPaint);
         }
-        // Draw the progress ring
-        if (mProgressRingSize > 0) {
-            canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(), false, mProgressRingPaint);
+    }
+
+    /**
+     * Rebuild the bounds and paints once after a batch of style changes
+     */
+    private void applyStyle(boolean relayout) {
+        if (mRingBounds != null) {
+            setupBounds();
+            mPaintsDirty = true;
+        }
+        if (relayout) {
+            requestLayout();
         }
+        invalidate();
+    }
+
+    /**
+     * Update the current paints in place during a style animation
+     */
+    private void updateStyle() {
+        if (mRingBounds != null && !mPaintsDirty) {
+            setupBounds();
+            mBackgroundRingPaint.setColor(mBackgroundRingColor);
+            mBackgroundRingPaint.setStrokeWidth(mBackgroundRingSize);
+            mProgressRingPaint.setStrokeWidth(mProgressRingSize);
+            if (mSegments != null) {
+                mSegments.setupPaint(mProgressRingSize, mProgressRingCorner);
+            }
+            if (mProgressGradient == null) {
+                mProgressRingPaint.setColor(mProgressRingColor);
+            }
+            setupTicks();
+            applyColorStop();
+            if (mGlow != null) {
+                mGlow.setColor(getGlowTint());
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * @return true while an animation is moving the progress towards its final value
+     */
+    private boolean isAnimating() {
+        return mAnimatorRunning || (mSpring != null && mSpring.isRunning());
     }
 
     private float getSweepAngle() {
@@ -404,9 +1037,68 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
      * @return {@link ObjectAnimator}
      */
     public ObjectAnimator getAnimator() {
+        if (mAnimator == null) {
+            setupAnimator();
+        }
         return mAnimator;
     }
 
+    @NonNull
+    @Override
+    public Editor edit() {
+        if (mStyleEditor == null) {
+            mStyleEditor = new StyleEditor(this, new StyleEditor.Callback() {
+                @Override
+                public void onStyleApplied(boolean relayout) {
+                    applyStyle(relayout);
+                }
+
+                @Override
+                public void onStyleAnimated() {
+                    updateStyle();
+                }
+            });
+        }
+        return mStyleEditor.begin();
+    }
+
+    public boolean isAsyncCrop() {
+        return mAsyncCrop;
+    }
+
+    /**
+     * Crop bitmap images in a circle on a background thread instead of on every draw
+     * <br/>The ring is drawn alone until the crop is ready. The bitmap is center cropped
+     * whatever the scale type is, other drawables are still drawn on the main thread.
+     * <br/>Crops are shared with other views through the {@link CircularBitmapCache}.
+     *
+     * @param asyncCrop true to enable it
+     * @see #setCropExecutor(Executor)
+     */
+    public void setAsyncCrop(boolean asyncCrop) {
+        if (mAsyncCrop != asyncCrop) {
+            mAsyncCrop = asyncCrop;
+            mCropSource = null;
+            mCroppedBitmap = null;
+            onImageChanged();
+            invalidate();
+        }
+    }
+
+    @NonNull
+    public Executor getCropExecutor() {
+        return mCropExecutor != null ? mCropExecutor : CircularCrop.getDefaultExecutor();
+    }
+
+    /**
+     * Set the executor where images are cropped, by default a shared background thread
+     *
+     * @param cropExecutor the executor or null to use the default one
+     */
+    public void setCropExecutor(@Nullable Executor cropExecutor) {
+        mCropExecutor = cropExecutor;
+    }
+
     @Override
     public float getMax() {
         return mMax;
@@ -415,6 +1107,13 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
     @Override
     public void setMax(float max) {
         mMax = max;
+        if (mSegments != null) {
+            mSegments.setMax(max);
+        }
+        if (mColorStops != null) {
+            mColorStops.setMax(max);
+            applyColorStop();
+        }
     }
 
     @Override
@@ -441,9 +1140,60 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
         } else {
             this.mProgress = progress;
         }
+        applyColorStop();
+        mAccessibility.onProgressChanged(isAnimating());
+        invalidateProgress();
+    }
+
+    @Override
+    public int getRenderQuality() {
+        return mRenderQuality;
+    }
+
+    @Override
+    public void setRenderQuality(int renderQuality) {
+        mRenderQuality = renderQuality;
+        mPaintsDirty = true;
         invalidate();
     }
 
+    @Override
+    public long getAccessibilityInterval() {
+        return mAccessibility.getInterval();
+    }
+
+    @Override
+    public void setAccessibilityInterval(long intervalMillis) {
+        mAccessibility.setInterval(intervalMillis);
+    }
+
+    @Override
+    public boolean isProgressVisible() {
+        return mAnimationPolicy.isActive();
+    }
+
+    @Override
+    public void addOnProgressVisibilityChangeListener(
+            @NonNull OnProgressVisibilityChangeListener listener) {
+        mAnimationPolicy.addListener(listener);
+    }
+
+    @Override
+    public void removeOnProgressVisibilityChangeListener(
+            @NonNull OnProgressVisibilityChangeListener listener) {
+        mAnimationPolicy.removeListener(listener);
+    }
+
+    @Override
+    public int getMaxFrameRate() {
+        return mAnimationPolicy.getMaxFrameRate();
+    }
+
+    @Override
+    public void setMaxFrameRate(int maxFrameRate) {
+        mAnimationPolicy.setMaxFrameRate(maxFrameRate);
+    }
+
     @Override
     public float getProgressRingSize() {
         return mProgressRingSize;
@@ -514,6 +1264,16 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
         this.mIsJoinGradient = isJoinGradient;
     }
 
+    @Override
+    public boolean isGradientFollowSweep() {
+        return mGradientFollowSweep;
+    }
+
+    @Override
+    public void setGradientFollowSweep(boolean gradientFollowSweep) {
+        mGradientFollowSweep = gradientFollowSweep;
+    }
+
     @Override
     public float getGradientFactor() {
         return mGradientFactor;
@@ -536,11 +1296,184 @@ public class ImageViewCircularProgress extends AppCompatImageView implements Cir
 
     @Override
     public Paint.Cap getCap(int id) {
-        for (Paint.Cap value : Paint.Cap.values()) {
-            if (id == value.ordinal()) {
-                return value;
+        return AttributesHelper.getCap(id);
+    }
+
+    @Override
+    public void setProgressSegments(@Nullable float[] values, @Nullable int[] colors) {
+        if (values == null || colors == null) {
+            mSegments = null;
+        } else {
+            if (mSegments == null) {
+                mSegments = new RingSegments();
+                mSegments.setMax(mMax);
+                mSegments.setGap(mSegmentGap);
+                mSegments.setupPaint(mProgressRingSize, mProgressRingCorner);
             }
+            mSegments.setSegments(values, colors);
+        }
+        invalidateProgress();
+    }
+
+    @Override
+    public void setProgressColorStops(@Nullable float[] stops, @Nullable int[] colors) {
+        if (stops == null || colors == null) {
+            mColorStops = null;
+            if (mProgressRingPaint != null && mProgressGradient == null) {
+                mProgressRingPaint.setColor(mProgressRingColor);
+                if (mTicks != null) {
+                    mTicks.setLitColor(mProgressRingColor);
+                }
+                if (mGlow != null) {
+                    mGlow.setColor(getGlowTint());
+                }
+            }
+        } else {
+            if (mColorStops == null) {
+                mColorStops = new RingColorStops();
+                mColorStops.setMax(mMax);
+            }
+            mColorStops.setStops(stops, colors);
+            applyColorStop();
+        }
+        invalidateProgress();
+    }
+
+    @Override
+    public void setProgressSegment(int index, float value) {
+        if (mSegments == null) {
+            throw new IllegalStateException("There are no progress segments");
+        }
+        mSegments.setSegment(index, value);
+        invalidateProgress();
+    }
+
+    @Override
+    public float getSegmentGap() {
+        return mSegmentGap;
+    }
+
+    @Override
+    public void setSegmentGap(float segmentGap) {
+        mSegmentGap = segmentGap;
+        if (mSegments != null) {
+            mSegments.setGap(segmentGap);
+        }
+        invalidate();
+    }
+
+    @Override
+    public int getTickCount() {
+        return mTickCount;
+    }
+
+    @Override
+    public void setTickCount(int tickCount) {
+        mTickCount = Math.max(0, tickCount);
+        if (!mPaintsDirty) {
+            setupTicks();
+        }
+        invalidate();
+    }
+
+    @Override
+    public float getTickWidth() {
+        return mTickWidth;
+    }
+
+    @Override
+    public void setTickWidth(float tickWidth) {
+        mTickWidth = tickWidth;
+        if (!mPaintsDirty) {
+            setupTicks();
+        }
+        invalidate();
+    }
+
+    @Override
+    public float getGlowRadius() {
+        return mGlowRadius;
+    }
+
+    @Override
+    public void setGlowRadius(float glowRadius) {
+        mGlowRadius = glowRadius;
+        if (!mPaintsDirty) {
+            setupGlow();
+        }
+        invalidateProgress();
+    }
+
+    @Override
+    public int getGlowColor() {
+        return mGlowColor;
+    }
+
+    @Override
+    public void setGlowColor(int glowColor) {
+        mGlowColor = glowColor;
+        if (mGlow != null) {
+            mGlow.setColor(getGlowTint());
+        }
+        invalidateProgress();
+    }
+
+    @Override
+    public boolean isLabelEnabled() {
+        return mLabel != null;
+    }
+
+    @Override
+    public void setLabelEnabled(boolean labelEnabled) {
+        if (labelEnabled && mLabel == null) {
+            mLabel = new RingLabel();
+            mLabel.setupPaint(mLabelTextSize, mLabelColor);
+        } else if (!labelEnabled) {
+            mLabel = null;
+        }
+        invalidateProgress();
+    }
+
+    @Override
+    public float getLabelTextSize() {
+        return mLabelTextSize;
+    }
+
+    @Override
+    public void setLabelTextSize(float labelTextSize) {
+        mLabelTextSize = labelTextSize;
+        if (mLabel != null) {
+            mLabel.setupPaint(mLabelTextSize, mLabelColor);
+        }
+        invalidateProgress();
+    }
+
+    @Override
+    public int getLabelColor() {
+        return mLabelColor;
+    }
+
+    @Override
+    public void setLabelColor(int labelColor) {
+        mLabelColor = labelColor;
+        if (mLabel != null) {
+            mLabel.setupPaint(mLabelTextSize, mLabelColor);
+        }
+        invalidateProgress();
+    }
+
+    @NonNull
+    @Override
+    public LabelFormatter getLabelFormatter() {
+        return mLabel != null ? mLabel.getFormatter() : RingLabel.PERCENT;
+    }
+
+    @Override
+    public void setLabelFormatter(@NonNull LabelFormatter labelFormatter) {
+        if (mLabel == null) {
+            setLabelEnabled(true);
         }
-        return Paint.Cap.BUTT;
+        mLabel.setFormatter(labelFormatter);
+        invalidateProgress();
     }
 }
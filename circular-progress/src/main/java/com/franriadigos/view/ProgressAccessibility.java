@@ -0,0 +1,104 @@
+package com.franriadigos.view;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.ProgressBar;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Reports the progress of a view to accessibility services as a {@link ProgressBar} does.
+ * <br/>Progress changes are coalesced into at most one event per interval, and changes made by
+ * an animation are only reported once it reaches its final value.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class ProgressAccessibility {
+
+    /**
+     * Default min time between two events in milliseconds
+     */
+    public static final long DEFAULT_INTERVAL = 200;
+
+    private final View mView;
+    private final AccessibilityManager mManager;
+    private long    mInterval = DEFAULT_INTERVAL;
+    private long    mLastSentTime;
+    private boolean mPending;
+
+    private final Runnable mSender = new Runnable() {
+        @Override
+        public void run() {
+            mPending = false;
+            mLastSentTime = SystemClock.uptimeMillis();
+            mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+        }
+    };
+
+    public ProgressAccessibility(@NonNull View view) {
+        mView = view;
+        mManager = (AccessibilityManager) view.getContext()
+                .getSystemService(Context.ACCESSIBILITY_SERVICE);
+    }
+
+    public long getInterval() {
+        return mInterval;
+    }
+
+    public void setInterval(long interval) {
+        mInterval = Math.max(0, interval);
+    }
+
+    /**
+     * Schedule an event with the progress, several changes within the interval send only one
+     *
+     * @param animating true if the change comes from a running animation, it is not reported
+     *                  and any pending event waits for the final value
+     */
+    public void onProgressChanged(boolean animating) {
+        if (animating) {
+            cancel();
+            return;
+        }
+        if (mPending || mManager == null || !mManager.isEnabled()) {
+            return;
+        }
+        mPending = true;
+        long delay = mLastSentTime + mInterval - SystemClock.uptimeMillis();
+        mView.postDelayed(mSender, Math.max(0, delay));
+    }
+
+    /**
+     * Drop the pending event, e.g. when the view is detached
+     */
+    public void cancel() {
+        if (mPending) {
+            mPending = false;
+            mView.removeCallbacks(mSender);
+        }
+    }
+
+    public static CharSequence getClassName() {
+        return ProgressBar.class.getName();
+    }
+
+    public static void onInitializeEvent(@NonNull AccessibilityEvent event,
+                                         float max, float progress) {
+        event.setClassName(getClassName());
+        event.setItemCount((int) max);
+        event.setCurrentItemIndex((int) progress);
+    }
+
+    public static void onInitializeNodeInfo(@NonNull AccessibilityNodeInfo info,
+                                            float max, float progress) {
+        info.setClassName(getClassName());
+        info.setRangeInfo(AccessibilityNodeInfo.RangeInfo.obtain(
+                AccessibilityNodeInfo.RangeInfo.RANGE_TYPE_FLOAT, 0, max, progress));
+    }
+}
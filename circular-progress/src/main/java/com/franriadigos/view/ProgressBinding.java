@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feeds a ring from a long lived progress source, like a job tracker or a transfer manager.
+ * <p/>
+ * <b>Usage:</b>
+ * <br>Call {@link #bind(CircularProgressContract, Source)} once, e.g. when the view is created.
+ * <br>The binding only listens to the source while the view is attached and visible, and it
+ * catches up with the latest value when the view shows again.
+ * <br>Updates can come from any thread, they are conflated to the latest value and applied
+ * once per frame on the main thread.
+ * <br>Call {@link #unbind()} to release the view and the source for good.
+ */
+public class ProgressBinding
+        implements CircularProgressContract.OnProgressVisibilityChangeListener {
+
+    /**
+     * An observable progress value
+     */
+    public interface Source {
+        /**
+         * @return the current progress, it is applied when the view shows
+         */
+        @AnyThread
+        float getProgress();
+
+        void addListener(@NonNull Listener listener);
+
+        void removeListener(@NonNull Listener listener);
+    }
+
+    /**
+     * Receives the progress of a {@link Source}, from any thread
+     */
+    public interface Listener {
+        @AnyThread
+        void onProgressChanged(float progress);
+    }
+
+    private final CircularProgressContract mView;
+    private final Source                   mSource;
+    private final Handler                  mMainHandler = new Handler(Looper.getMainLooper());
+
+    private boolean mAnimate = true;
+    private boolean mSubscribed;
+    private boolean mBound;
+
+    /*
+     * Latest value of the source, applied on the next frame
+     */
+    private volatile float mLatestProgress;
+    private final AtomicBoolean mFramePending = new AtomicBoolean();
+
+    private final Listener mListener = new Listener() {
+        @Override
+        public void onProgressChanged(float progress) {
+            mLatestProgress = progress;
+            if (mFramePending.compareAndSet(false, true)) {
+                mMainHandler.post(mScheduleFrame);
+            }
+        }
+    };
+
+    private final Runnable mScheduleFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    };
+
+    private final Choreographer.FrameCallback mFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mFramePending.set(false);
+            if (mSubscribed) {
+                apply(mLatestProgress);
+            }
+        }
+    };
+
+    private ProgressBinding(@NonNull CircularProgressContract view, @NonNull Source source) {
+        mView = view;
+        mSource = source;
+    }
+
+    /**
+     * Bind the progress of the view to the source
+     *
+     * @param view   the view showing the progress
+     * @param source the progress source
+     * @return the binding, keep it to {@link #unbind()} it
+     */
+    @NonNull
+    @MainThread
+    public static ProgressBinding bind(@NonNull CircularProgressContract view,
+                                       @NonNull Source source) {
+        ProgressBinding binding = new ProgressBinding(view, source);
+        binding.mBound = true;
+        view.addOnProgressVisibilityChangeListener(binding);
+        if (view.isProgressVisible()) {
+            binding.subscribe();
+        }
+        return binding;
+    }
+
+    /**
+     * Stop listening to the source and the view
+     */
+    @MainThread
+    public void unbind() {
+        if (mBound) {
+            mBound = false;
+            mView.removeOnProgressVisibilityChangeListener(this);
+            unsubscribe();
+        }
+    }
+
+    public boolean isAnimate() {
+        return mAnimate;
+    }
+
+    /**
+     * @param animate true to animate to every new value, the default, false to jump to it
+     */
+    public void setAnimate(boolean animate) {
+        mAnimate = animate;
+    }
+
+    @Override
+    public void onProgressVisibilityChanged(boolean visible) {
+        if (visible) {
+            subscribe();
+        } else {
+            unsubscribe();
+        }
+    }
+
+    private void subscribe() {
+        if (!mSubscribed) {
+            mSubscribed = true;
+            mSource.addListener(mListener);
+            // Catch up with the changes missed while the view could not be seen
+            apply(mSource.getProgress());
+        }
+    }
+
+    private void unsubscribe() {
+        if (mSubscribed) {
+            mSubscribed = false;
+            mSource.removeListener(mListener);
+            mMainHandler.removeCallbacks(mScheduleFrame);
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+            mFramePending.set(false);
+        }
+    }
+
+    private void apply(float progress) {
+        if (progress == mView.getProgress()) {
+            return;
+        }
+        if (mAnimate) {
+            mView.animateProgressTo(progress);
+        } else {
+            mView.setCurrentProgress(progress);
+            mView.setProgress(progress);
+        }
+    }
+}
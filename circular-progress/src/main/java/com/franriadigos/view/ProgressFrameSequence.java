@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.animation.TimeInterpolator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.view.animation.OvershootInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import static com.franriadigos.view.CircularProgressContract.ANIMATION_DURATION;
+
+/**
+ * A progress animation pre-rendered into frames, so playing it back only draws bitmaps.
+ * <p/>
+ * <b>Usage:</b>
+ * <br>Build it on a background thread with {@link #prerender(CircularProgressRenderer, int, int,
+ * float, float)}, or get it from the {@link FrameSequenceCache}, then call
+ * {@link #draw(Canvas, int)} with the index of the frame to show.
+ * <br>The image and the background ring are rendered once, every frame only keeps the progress
+ * ring as an {@link Bitmap.Config#ALPHA_8} mask that is tinted with the ring colors or
+ * gradient when drawn.
+ *
+ * @see FrameSequenceCache
+ */
+public class ProgressFrameSequence {
+
+    /**
+     * Default frames per second
+     */
+    public static final int DEFAULT_FRAME_RATE = 30;
+
+    private final Bitmap   mStaticFrame;
+    private final Bitmap[] mFrames;
+    private final Paint    mTintPaint;
+    private final long     mDuration;
+
+    private ProgressFrameSequence(@NonNull Bitmap staticFrame, @NonNull Bitmap[] frames,
+                                  @NonNull Paint tintPaint, long duration) {
+        mStaticFrame = staticFrame;
+        mFrames = frames;
+        mTintPaint = tintPaint;
+        mDuration = duration;
+    }
+
+    /**
+     * Pre-render the default animation, 1200 milliseconds with an {@link OvershootInterpolator}
+     *
+     * @see #prerender(CircularProgressRenderer, int, int, float, float, long, int, TimeInterpolator)
+     */
+    @NonNull
+    @WorkerThread
+    public static ProgressFrameSequence prerender(@NonNull CircularProgressRenderer renderer,
+                                                  int width, int height, float from, float to) {
+        return prerender(renderer, width, height, from, to,
+                         ANIMATION_DURATION, DEFAULT_FRAME_RATE, new OvershootInterpolator());
+    }
+
+    /**
+     * Pre-render an animation of the given renderer from one progress value to another
+     *
+     * @param renderer     the style of the ring
+     * @param width        width of the frames
+     * @param height       height of the frames
+     * @param from         progress of the first frame
+     * @param to           progress of the last frame
+     * @param duration     duration of the animation in milliseconds
+     * @param frameRate    frames per second
+     * @param interpolator timing of the animation
+     * @return the frames
+     */
+    @NonNull
+    @WorkerThread
+    public static ProgressFrameSequence prerender(@NonNull CircularProgressRenderer renderer,
+                                                  int width, int height, float from, float to,
+                                                  long duration, int frameRate,
+                                                  @NonNull TimeInterpolator interpolator) {
+        int frameCount = Math.max(2, (int) (duration * frameRate / 1000) + 1);
+
+        // Keep the style of the renderer while rendering
+        synchronized (renderer) {
+            renderer.prepare(width, height);
+
+            Bitmap staticFrame = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(staticFrame);
+            renderer.drawStatic(canvas);
+
+            Paint tintPaint = new Paint();
+            renderer.copyProgressRingPaint(tintPaint);
+            tintPaint.setFilterBitmap(false);
+
+            // Only the coverage of the ring is kept in the frames
+            Paint maskPaint = new Paint(tintPaint);
+            maskPaint.setShader(null);
+            maskPaint.setColor(Color.BLACK);
+
+            float max = renderer.getMax();
+            Bitmap[] frames = new Bitmap[frameCount];
+            for (int i = 0; i < frameCount; i++) {
+                frames[i] = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+                canvas.setBitmap(frames[i]);
+                float fraction = interpolator.getInterpolation(i / (float) (frameCount - 1));
+                float progress = Math.max(0, Math.min(max, from + (to - from) * fraction));
+                renderer.drawProgressRing(canvas, progress, maskPaint);
+            }
+            canvas.setBitmap(null);
+
+            return new ProgressFrameSequence(staticFrame, frames, tintPaint, duration);
+        }
+    }
+
+    public int getFrameCount() {
+        return mFrames.length;
+    }
+
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * @param playTime milliseconds since the animation started
+     * @return the index of the frame to show
+     */
+    public int getFrameIndex(long playTime) {
+        if (playTime <= 0) {
+            return 0;
+        }
+        if (playTime >= mDuration) {
+            return mFrames.length - 1;
+        }
+        return (int) (playTime * (mFrames.length - 1) / mDuration);
+    }
+
+    /**
+     * Draw a frame at the top left corner of the canvas
+     *
+     * @param canvas     the canvas to draw into
+     * @param frameIndex index of the frame
+     */
+    public void draw(@NonNull Canvas canvas, int frameIndex) {
+        canvas.drawBitmap(mStaticFrame, 0, 0, null);
+        canvas.drawBitmap(mFrames[frameIndex], 0, 0, mTintPaint);
+    }
+
+    /**
+     * @return the memory used by all the frames
+     */
+    public int getByteCount() {
+        int byteCount = mStaticFrame.getAllocationByteCount();
+        for (Bitmap frame : mFrames) {
+            byteCount += frame.getAllocationByteCount();
+        }
+        return byteCount;
+    }
+}
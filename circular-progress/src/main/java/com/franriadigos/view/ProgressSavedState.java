@@ -0,0 +1,70 @@
+package com.franriadigos.view;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Progress of a view kept across configuration changes, with the position of a running
+ * animation so it continues instead of starting again.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class ProgressSavedState extends View.BaseSavedState {
+
+    /*
+     * Running animation
+     */
+    public static final int ANIMATION_NONE     = 0;
+    public static final int ANIMATION_ANIMATOR = 1;
+    public static final int ANIMATION_SPRING   = 2;
+
+    public float progress;
+    public float currentProgress;
+    public int   animation = ANIMATION_NONE;
+    public float animationFrom;
+    public float animationTo;
+    public long  animationPlayTime;
+
+    public ProgressSavedState(Parcelable superState) {
+        super(superState);
+    }
+
+    private ProgressSavedState(@NonNull Parcel source) {
+        super(source);
+        progress = source.readFloat();
+        currentProgress = source.readFloat();
+        animation = source.readInt();
+        animationFrom = source.readFloat();
+        animationTo = source.readFloat();
+        animationPlayTime = source.readLong();
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel out, int flags) {
+        super.writeToParcel(out, flags);
+        out.writeFloat(progress);
+        out.writeFloat(currentProgress);
+        out.writeInt(animation);
+        out.writeFloat(animationFrom);
+        out.writeFloat(animationTo);
+        out.writeLong(animationPlayTime);
+    }
+
+    public static final Parcelable.Creator<ProgressSavedState> CREATOR =
+            new Parcelable.Creator<ProgressSavedState>() {
+                @Override
+                public ProgressSavedState createFromParcel(Parcel source) {
+                    return new ProgressSavedState(source);
+                }
+
+                @Override
+                public ProgressSavedState[] newArray(int size) {
+                    return new ProgressSavedState[size];
+                }
+            };
+}
@@ -0,0 +1,170 @@
+package com.franriadigos.view;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Critically damped spring that follows a moving target.
+ * <br/>It is integrated on a fixed timestep from {@link Choreographer} frames. A new target is
+ * absorbed mid-flight keeping the current velocity, without any delay or allocation.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class ProgressSpring implements Choreographer.FrameCallback {
+
+    /**
+     * Receives the position of the spring on every frame
+     */
+    public interface Callback {
+        void onSpringUpdate(float value);
+    }
+
+    /*
+     * Fixed integration step, in seconds
+     */
+    private static final float TIME_STEP = 1f / 240f;
+
+    /*
+     * Longest frame gap integrated at once, e.g. after the app was paused
+     */
+    private static final float MAX_FRAME_TIME = 0.1f;
+
+    /*
+     * Distance and velocity under which the spring is at rest
+     */
+    private static final float REST_THRESHOLD = 0.01f;
+
+    /*
+     * Default angular frequency, settles in around 600 milliseconds
+     */
+    private static final float DEFAULT_FREQUENCY = 10f;
+
+    @NonNull
+    private final Callback mCallback;
+
+    private float mPosition;
+    private float mVelocity;
+    private float mTarget;
+    private float mFrequency = DEFAULT_FREQUENCY;
+    private float mTimeScale = 1f;
+
+    private boolean mRunning;
+    private long    mLastFrameNanos;
+    private float   mAccumulator;
+
+    public ProgressSpring(@NonNull Callback callback) {
+        mCallback = callback;
+    }
+
+    /**
+     * Move the spring towards a new target, keeping its current velocity
+     */
+    public void animateTo(float target) {
+        mTarget = target;
+        if (mTimeScale == 0) {
+            // Animations are disabled
+            setPosition(target);
+            mCallback.onSpringUpdate(target);
+            return;
+        }
+        if (!mRunning) {
+            mRunning = true;
+            mLastFrameNanos = 0;
+            mAccumulator = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Jump to the given position and stop
+     */
+    public void setPosition(float position) {
+        cancel();
+        mPosition = position;
+        mTarget = position;
+        mVelocity = 0;
+    }
+
+    public void cancel() {
+        if (mRunning) {
+            mRunning = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stop on the current position, {@link #resume()} continues towards the same target
+     */
+    public void pause() {
+        cancel();
+    }
+
+    public void resume() {
+        if (!mRunning && mPosition != mTarget) {
+            animateTo(mTarget);
+        }
+    }
+
+    public boolean isRunning() {
+        return mRunning;
+    }
+
+    public float getTarget() {
+        return mTarget;
+    }
+
+    public float getPosition() {
+        return mPosition;
+    }
+
+    /**
+     * @param frequency angular frequency of the spring, higher values follow the target faster
+     */
+    public void setFrequency(float frequency) {
+        mFrequency = frequency;
+    }
+
+    /**
+     * @param timeScale scale of the elapsed time, e.g. the animator duration scale of the system
+     */
+    public void setTimeScale(float timeScale) {
+        mTimeScale = timeScale;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+
+        if (mLastFrameNanos != 0) {
+            float frameTime = (frameTimeNanos - mLastFrameNanos) / 1_000_000_000f / mTimeScale;
+            mAccumulator += Math.min(frameTime, MAX_FRAME_TIME);
+        }
+        mLastFrameNanos = frameTimeNanos;
+
+        // a = w^2 * (target - x) - 2 * w * v
+        float stiffness = mFrequency * mFrequency;
+        float damping = 2 * mFrequency;
+        while (mAccumulator >= TIME_STEP) {
+            float acceleration = stiffness * (mTarget - mPosition) - damping * mVelocity;
+            mVelocity += acceleration * TIME_STEP;
+            mPosition += mVelocity * TIME_STEP;
+            mAccumulator -= TIME_STEP;
+        }
+
+        if (Math.abs(mTarget - mPosition) < REST_THRESHOLD
+            && Math.abs(mVelocity) < REST_THRESHOLD) {
+            mPosition = mTarget;
+            mVelocity = 0;
+            mRunning = false;
+        } else {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        mCallback.onSpringUpdate(mPosition);
+    }
+}
@@ -0,0 +1,64 @@
+package com.franriadigos.view;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+import static com.franriadigos.view.CircularProgressContract.QUALITY_AUTO;
+import static com.franriadigos.view.CircularProgressContract.QUALITY_LOW;
+
+/**
+ * Decides when a ring can be drawn with cheaper settings.
+ * <br/>With {@link CircularProgressContract#QUALITY_AUTO} the low quality is used for rings
+ * smaller than {@link #SMALL_RING_DIAMETER_DP} or on low end devices.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RenderQuality {
+
+    /**
+     * Rings under this diameter are drawn with low quality
+     */
+    public static final float SMALL_RING_DIAMETER_DP = 48;
+
+    /**
+     * Memory class in megabytes of the devices considered low end
+     */
+    static final int LOW_END_MEMORY_CLASS = 96;
+
+    private static Boolean sLowEndDevice;
+
+    private RenderQuality() {
+    }
+
+    /**
+     * @param quality  the quality requested for the view
+     * @param view     the view drawing the ring
+     * @param diameter the diameter of the ring in pixels
+     * @return true if the ring should be drawn with low quality
+     */
+    public static boolean isLow(int quality, @NonNull View view, float diameter) {
+        if (quality != QUALITY_AUTO) {
+            return quality == QUALITY_LOW;
+        }
+        float density = view.getResources().getDisplayMetrics().density;
+        return diameter < SMALL_RING_DIAMETER_DP * density || isLowEndDevice(view.getContext());
+    }
+
+    /**
+     * @return true on low RAM devices or devices with a small memory class
+     */
+    public static synchronized boolean isLowEndDevice(@NonNull Context context) {
+        if (sLowEndDevice == null) {
+            ActivityManager activityManager =
+                    (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            sLowEndDevice = activityManager != null
+                            && (activityManager.isLowRamDevice()
+                                || activityManager.getMemoryClass() <= LOW_END_MEMORY_CLASS);
+        }
+        return sLowEndDevice;
+    }
+}
@@ -0,0 +1,69 @@
+package com.franriadigos.view;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Color of the progress ring by progress value.
+ * <br/>The colors between the stops are blended once into a lookup table when the stops or the
+ * max change, so getting the color of the current progress is an array read.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RingColorStops {
+
+    static final int LUT_SIZE = 256;
+
+    private final int[] mLut = new int[LUT_SIZE];
+    private float[] mStops;
+    private int[]   mColors;
+    private float   mMax = 100;
+
+    /**
+     * @param stops  progress values in ascending order, relative to the max
+     * @param colors one color per stop
+     */
+    public void setStops(@NonNull float[] stops, @NonNull int[] colors) {
+        if (stops.length != colors.length || stops.length == 0) {
+            throw new IllegalArgumentException("Every color stop needs a color");
+        }
+        mStops = stops.clone();
+        mColors = colors.clone();
+        buildLut();
+    }
+
+    public void setMax(float max) {
+        mMax = max;
+        if (mStops != null) {
+            buildLut();
+        }
+    }
+
+    /**
+     * @return the color of the ring at the given progress
+     */
+    public int getColor(float progress) {
+        int index = mMax > 0 ? (int) (progress / mMax * (LUT_SIZE - 1) + 0.5f) : 0;
+        return mLut[Math.max(0, Math.min(LUT_SIZE - 1, index))];
+    }
+
+    private void buildLut() {
+        int last = mStops.length - 1;
+        int stop = 0;
+        for (int i = 0; i < LUT_SIZE; i++) {
+            float progress = mMax * i / (LUT_SIZE - 1);
+            while (stop < last && progress >= mStops[stop + 1]) {
+                stop++;
+            }
+            if (progress <= mStops[0]) {
+                mLut[i] = mColors[0];
+            } else if (stop == last) {
+                mLut[i] = mColors[last];
+            } else {
+                float fraction = (progress - mStops[stop]) / (mStops[stop + 1] - mStops[stop]);
+                mLut[i] = StyleEditor.blendColors(mColors[stop], mColors[stop + 1], fraction);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.franriadigos.view;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_90;
+
+/**
+ * Soft glow under the progress ring.
+ * <br/>The blurred ring is rasterized once per size and style into an
+ * {@link Bitmap.Config#ALPHA_8} bitmap. On every frame it is drawn through a shader with an arc
+ * following the progress, tinted with the glow color, so there is no blur at draw time.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RingGlow {
+
+    private Bitmap mBitmap;
+    private final Paint mPaint = new Paint();
+
+    public RingGlow() {
+        mPaint.setAntiAlias(true);
+        mPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * Rasterize the blurred ring, call it only when the size or the style changes
+     *
+     * @param width    width of the view
+     * @param height   height of the view
+     * @param bounds   bounds of the ring
+     * @param ringSize size of the progress ring
+     * @param radius   blur radius of the glow
+     * @param cap      cap of the progress ring
+     */
+    public void setup(int width, int height, @NonNull RectF bounds, float ringSize,
+                      float radius, @NonNull Paint.Cap cap) {
+        if (width <= 0 || height <= 0 || radius <= 0) {
+            return;
+        }
+        if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height) {
+            mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        } else {
+            mBitmap.eraseColor(0);
+        }
+
+        // Blur is only supported by software canvases, do it once here
+        Paint blurPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        blurPaint.setStyle(Paint.Style.STROKE);
+        blurPaint.setStrokeWidth(ringSize);
+        blurPaint.setMaskFilter(new BlurMaskFilter(radius, BlurMaskFilter.Blur.NORMAL));
+        new Canvas(mBitmap).drawOval(bounds, blurPaint);
+
+        mPaint.setShader(new BitmapShader(mBitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+        mPaint.setStrokeWidth(ringSize + radius * 2);
+        mPaint.setStrokeCap(cap);
+    }
+
+    /**
+     * @param color tint of the glow, it can be changed on every frame
+     */
+    public void setColor(int color) {
+        mPaint.setColor(color);
+    }
+
+    /**
+     * Draw the glow under the given sweep of the ring
+     */
+    public void draw(@NonNull Canvas canvas, @NonNull RectF bounds, float sweepAngle) {
+        if (mBitmap != null) {
+            canvas.drawArc(bounds, -ANGLE_90, sweepAngle, false, mPaint);
+        }
+    }
+}
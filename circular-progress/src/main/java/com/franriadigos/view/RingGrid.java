@@ -0,0 +1,810 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.animation.OvershootInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.util.Arrays;
+
+import static com.franriadigos.view.CircularProgressContract.ANGLE_360;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_90;
+import static com.franriadigos.view.CircularProgressContract.ANIMATION_DELAY;
+import static com.franriadigos.view.CircularProgressContract.ANIMATION_DURATION;
+import static com.franriadigos.view.CircularProgressContract.DEFAULT_BG_COLOR;
+import static com.franriadigos.view.CircularProgressContract.DEFAULT_RING_COLOR;
+
+/**
+ * Android custom view to draw a grid of many small progress rings in a single view.
+ * <p/>
+ * <b>Usage:</b>
+ * <br>Every cell only keeps a progress value and the index of its color in the palette, so
+ * hundreds of rings cost about as much as one view. All the rings share two paints.
+ * <br>On API 29+ every row of rings is recorded into its own display list, so changing a
+ * single ring only records its row again. Below API 29 a single ring change only saves work
+ * with a software layer, hardware accelerated views record all the rings again.
+ * <br>Use {@link #getCellAt(float, float)} or {@link #setOnCellClickListener(OnCellClickListener)}
+ * to find the ring under a touch.
+ * <br>To animate all the rings at once call {@link RingGrid#startAnimation()}
+ * <p/>
+ * <b>Features:</b>
+ * <ul style="margin-top:0;">
+ * <li>app:cellCount="300" - Number of rings</li>
+ * <li>app:gridColumnCount="20" - Number of rings per row, the rows wrap the remaining rings</li>
+ * <li>app:cellSpacing="2dp" - Space between two rings</li>
+ * <li>app:max="100" - Max value for every ring</li>
+ * <li>app:progressRingSize="3dp" - The size of every ring</li>
+ * <li>app:backgroundRingColor="@color/my_color" - The color of the background rings</li>
+ * <li>app:ringColors="@array/colors" - The palette of colors the rings pick from
+ * (you must provide an array resource reference)</li>
+ * <li>app:progressRingCorner="ROUND" - Sets the corner style of the rings
+ * (by default is RECT -> Square)</li>
+ * </ul>
+ *
+ * @see #setProgress(int, float)
+ * @see #setColorIndex(int, int)
+ */
+public class RingGrid extends View {
+
+    /**
+     * Receives clicks on a ring
+     */
+    public interface OnCellClickListener {
+        void onCellClick(@NonNull RingGrid grid, int cell);
+    }
+
+    /**
+     * Progress values
+     */
+    private float   mMax = 100;
+    private float[] mProgress        = new float[0];
+    private float[] mCurrentProgress = new float[0];
+
+    /**
+     * Animated values, from and to
+     */
+    private float[] mFromProgress = new float[0];
+    private float[] mToProgress   = new float[0];
+
+    /**
+     * Cells and palette
+     */
+    private int   mCellCount;
+    private int   mColumnCount = 1;
+    private int[] mColorIndices = new int[0];
+    private int[] mPalette = new int[]{DEFAULT_RING_COLOR};
+    private int   mBackgroundRingColor = DEFAULT_BG_COLOR;
+
+    /**
+     * Ring sizes
+     */
+    private float mRingSize = 8;
+    private float mCellSpacing;
+
+    /**
+     * Default progress ring cap
+     */
+    private Paint.Cap mProgressRingCorner = Paint.Cap.BUTT;
+
+    /*
+     * Animator, created on the first animation
+     */
+    private ValueAnimator mAnimator;
+
+    /*
+     * Paints, shared by all the rings
+     */
+    private Paint mProgressRingPaint;
+    private Paint mBackgroundRingPaint;
+
+    /*
+     * Cells grouped by color, rebuilt when the colors change. The cells of a color are
+     * mColorCells[mColorStarts[color]] to mColorCells[mColorStarts[color + 1] - 1], ascending
+     */
+    private int[]   mColorStarts = new int[0];
+    private int[]   mColorFill   = new int[0];
+    private int[]   mColorCells  = new int[0];
+    private boolean mColorsDirty = true;
+
+    /*
+     * Display list of every row on API 29+
+     */
+    private RowNodes mRowNodes;
+
+    /*
+     * Shared geometry, the size of a cell and the radius of every ring
+     */
+    private float mCellSize;
+    private float mRingRadius;
+    private final RectF mRingBounds = new RectF();
+    private final Rect  mClipBounds = new Rect();
+
+    /*
+     * Hit testing
+     */
+    private OnCellClickListener mOnCellClickListener;
+    private int mPressedCell = -1;
+
+    public RingGrid(Context context) {
+        this(context, null);
+    }
+
+    public RingGrid(Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public RingGrid(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        loadFromAttributes(attrs, defStyleAttr);
+    }
+
+    private void loadFromAttributes(@Nullable AttributeSet attrs, int defStyleAttr) {
+        final TypedArray a = getContext().obtainStyledAttributes(
+                attrs, R.styleable.RingGrid, defStyleAttr, 0);
+
+        setCellCount(a.getInt(R.styleable.RingGrid_cellCount, 0));
+        mColumnCount = Math.max(1, a.getInt(R.styleable.RingGrid_gridColumnCount, mColumnCount));
+        mMax = a.getFloat(R.styleable.RingGrid_max, mMax);
+        mCellSpacing = a.getDimension(R.styleable.RingGrid_cellSpacing, 0);
+        mRingSize = a.getDimension(R.styleable.RingGrid_progressRingSize, mRingSize);
+        mBackgroundRingColor = a.getColor(
+                R.styleable.RingGrid_backgroundRingColor, mBackgroundRingColor);
+        mProgressRingCorner = getCap(a.getInt(
+                R.styleable.RingGrid_progressRingCorner, Paint.Cap.BUTT.ordinal()));
+
+        try {
+            if (a.hasValue(R.styleable.RingGrid_ringColors)) {
+                int[] colors = AttributesHelper.loadColors(
+                        a, R.styleable.RingGrid_ringColors, this);
+                if (colors.length > 0) {
+                    mPalette = colors;
+                }
+            }
+        } catch (Exception e) {
+            if(! isInEditMode()) {
+                throw e;
+            }
+        }
+
+        a.recycle();
+    }
+
+    /**
+     * Measure the rows needed by the cells for the given width
+     *
+     * @param widthMeasureSpec  int
+     * @param heightMeasureSpec int
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        int widthWithoutPadding = width - getPaddingLeft() - getPaddingRight();
+        float cellSize = Math.max(0, (float) widthWithoutPadding / mColumnCount);
+        int rows = (mCellCount + mColumnCount - 1) / mColumnCount;
+        int height = (int) Math.ceil(rows * cellSize) + getPaddingTop() + getPaddingBottom();
+
+        // Report back the measured size.
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        setupBounds(w);
+        setupPaints();
+
+        invalidateCells();
+    }
+
+    /**
+     * Compute the size of a cell once, every ring has the same radius
+     */
+    private void setupBounds(int w) {
+        int width = w - getPaddingLeft() - getPaddingRight();
+        mCellSize = Math.max(0, (float) width / mColumnCount);
+        mRingRadius = (mCellSize - mCellSpacing - mRingSize) / 2;
+    }
+
+    private void setupPaints() {
+        mProgressRingPaint = new Paint();
+        mProgressRingPaint.setAntiAlias(true);
+        mProgressRingPaint.setStrokeCap(mProgressRingCorner);
+        mProgressRingPaint.setStyle(Paint.Style.STROKE);
+        mProgressRingPaint.setStrokeWidth(mRingSize);
+
+        mBackgroundRingPaint = new Paint();
+        mBackgroundRingPaint.setAntiAlias(true);
+        mBackgroundRingPaint.setStyle(Paint.Style.STROKE);
+        mBackgroundRingPaint.setStrokeWidth(mRingSize);
+        mBackgroundRingPaint.setColor(mBackgroundRingColor);
+    }
+
+    private void setupAnimator() {
+        mAnimator = ValueAnimator.ofFloat(0f, 1f);
+        mAnimator.setDuration(ANIMATION_DURATION);
+        mAnimator.setInterpolator(new OvershootInterpolator());
+        mAnimator.setStartDelay(ANIMATION_DELAY);
+        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                float fraction = (float) animation.getAnimatedValue();
+                for (int i = 0; i < mCellCount; i++) {
+                    mCurrentProgress[i] = mFromProgress[i]
+                                          + (mToProgress[i] - mFromProgress[i]) * fraction;
+                    mProgress[i] = mCurrentProgress[i];
+                }
+                invalidateCells();
+            }
+        });
+    }
+
+    /**
+     * It will start animating every ring to the progress value set
+     * <br>Default animation duration is 1200 milliseconds
+     * <br/>It starts with a default delay of 500 milliseconds
+     * <br/>You can get an instance of the animator with the method {@link
+     * RingGrid#getAnimator()} and Override these values
+     *
+     * @see ValueAnimator
+     */
+    public void startAnimation() {
+        for (int i = 0; i < mCellCount; i++) {
+            mFromProgress[i] = mCurrentProgress[i];
+            mToProgress[i] = mProgress[i];
+            mProgress[i] = mCurrentProgress[i];
+        }
+        getAnimator().start();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mProgressRingPaint == null || mRingRadius <= 0 || mRingSize <= 0) {
+            return;
+        }
+
+        if (mColorsDirty) {
+            setupColorCells();
+            mColorsDirty = false;
+        }
+
+        // Only the rows inside the clip are drawn
+        int rowCount = (mCellCount + mColumnCount - 1) / mColumnCount;
+        if (rowCount == 0 || !canvas.getClipBounds(mClipBounds)) {
+            return;
+        }
+        int firstRow = Math.max(0, getRowAt(mClipBounds.top));
+        int lastRow = Math.min(rowCount - 1, getRowAt(mClipBounds.bottom));
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            if (mRowNodes == null) {
+                mRowNodes = new RowNodes();
+            }
+            mRowNodes.setRowCount(rowCount);
+            for (int row = firstRow; row <= lastRow; row++) {
+                // Only the rows with changed rings are recorded again
+                if (mRowNodes.isDirty(row)) {
+                    int top = (int) Math.floor(getPaddingTop() + row * mCellSize);
+                    int bottom = (int) Math.ceil(getPaddingTop() + (row + 1) * mCellSize);
+                    Canvas rowCanvas = mRowNodes.beginRecording(row, getWidth(), top, bottom);
+                    try {
+                        drawCells(rowCanvas, row * mColumnCount,
+                                  Math.min(mCellCount, (row + 1) * mColumnCount));
+                    } finally {
+                        mRowNodes.endRecording(row);
+                    }
+                }
+                mRowNodes.draw(canvas, row);
+            }
+        } else {
+            drawCells(canvas, firstRow * mColumnCount,
+                      Math.min(mCellCount, (lastRow + 1) * mColumnCount));
+        }
+    }
+
+    /**
+     * Draw the rings of the cells from first, inclusive, to last, exclusive
+     */
+    private void drawCells(@NonNull Canvas canvas, int firstCell, int lastCell) {
+        // Draw all the background rings with the same paint
+        for (int i = firstCell; i < lastCell; i++) {
+            setRingBounds(i);
+            canvas.drawArc(mRingBounds, ANGLE_360, ANGLE_360, false, mBackgroundRingPaint);
+        }
+
+        // Draw the progress rings grouped by color, so the paint changes once per color
+        for (int color = 0; color < mPalette.length; color++) {
+            int end = mColorStarts[color + 1];
+            int start = Arrays.binarySearch(mColorCells, mColorStarts[color], end, firstCell);
+            if (start < 0) {
+                start = -start - 1;
+            }
+            if (start == end || mColorCells[start] >= lastCell) {
+                continue;
+            }
+            mProgressRingPaint.setColor(mPalette[color]);
+            for (int j = start; j < end && mColorCells[j] < lastCell; j++) {
+                int cell = mColorCells[j];
+                if (mProgress[cell] > 0) {
+                    setRingBounds(cell);
+                    canvas.drawArc(mRingBounds, -ANGLE_90, getSweepAngle(cell), false,
+                                   mProgressRingPaint);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sort the cells by color once, cells without a color of the palette are left out
+     */
+    private void setupColorCells() {
+        int colorCount = mPalette.length;
+        if (mColorStarts.length != colorCount + 1) {
+            mColorStarts = new int[colorCount + 1];
+            mColorFill = new int[colorCount];
+        } else {
+            Arrays.fill(mColorStarts, 0);
+        }
+        if (mColorCells.length != mCellCount) {
+            mColorCells = new int[mCellCount];
+        }
+
+        // Count the cells of every color and turn the counts into start positions
+        for (int i = 0; i < mCellCount; i++) {
+            int color = mColorIndices[i];
+            if (color >= 0 && color < colorCount) {
+                mColorStarts[color + 1]++;
+            }
+        }
+        for (int color = 0; color < colorCount; color++) {
+            mColorStarts[color + 1] += mColorStarts[color];
+        }
+
+        // Fill every color in the order of the cells
+        System.arraycopy(mColorStarts, 0, mColorFill, 0, colorCount);
+        for (int i = 0; i < mCellCount; i++) {
+            int color = mColorIndices[i];
+            if (color >= 0 && color < colorCount) {
+                mColorCells[mColorFill[color]++] = i;
+            }
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mRowNodes != null) {
+            mRowNodes.discard();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public boolean onTouchEvent(@NonNull MotionEvent event) {
+        if (mOnCellClickListener == null) {
+            return super.onTouchEvent(event);
+        }
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mPressedCell = getCellAt(event.getX(), event.getY());
+                return mPressedCell != -1;
+            case MotionEvent.ACTION_UP:
+                int cell = getCellAt(event.getX(), event.getY());
+                if (cell != -1 && cell == mPressedCell) {
+                    performClick();
+                    mOnCellClickListener.onCellClick(this, cell);
+                }
+                mPressedCell = -1;
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                mPressedCell = -1;
+                return true;
+            default:
+                return mPressedCell != -1;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private void setRingBounds(int cell) {
+        float centerX = getPaddingLeft() + (cell % mColumnCount + 0.5f) * mCellSize;
+        float centerY = getPaddingTop() + (cell / mColumnCount + 0.5f) * mCellSize;
+        mRingBounds.set(centerX - mRingRadius, centerY - mRingRadius,
+                        centerX + mRingRadius, centerY + mRingRadius);
+    }
+
+    private int getRowAt(float y) {
+        return mCellSize > 0 ? (int) ((y - getPaddingTop()) / mCellSize) : 0;
+    }
+
+    private float getSweepAngle(int cell) {
+        return (360f / mMax * mProgress[cell]);
+    }
+
+    private float clamp(float progress) {
+        if (progress < 0) {
+            return 0;
+        } else if (progress > mMax) {
+            return mMax;
+        }
+        return progress;
+    }
+
+    private void checkCell(int cell) {
+        if (cell < 0 || cell >= mCellCount) {
+            throw new IndexOutOfBoundsException("Cell " + cell + " of " + mCellCount);
+        }
+    }
+
+    /**
+     * Record only the row of the given cell again, and redraw only its area on software layers
+     */
+    private void invalidateCell(int cell) {
+        if (mCellSize <= 0) {
+            invalidateCells();
+            return;
+        }
+        if (mRowNodes != null) {
+            mRowNodes.invalidateRow(cell / mColumnCount);
+        }
+        int left = (int) (getPaddingLeft() + (cell % mColumnCount) * mCellSize);
+        int top = (int) (getPaddingTop() + (cell / mColumnCount) * mCellSize);
+        int size = (int) Math.ceil(mCellSize) + 1;
+        invalidate(left, top, left + size, top + size);
+    }
+
+    /**
+     * Record every row again
+     */
+    private void invalidateCells() {
+        if (mRowNodes != null) {
+            mRowNodes.invalidateAll();
+        }
+        invalidate();
+    }
+
+    /**
+     * Geometry or paints changed, recompute them if the view was already measured
+     */
+    private void invalidateRings() {
+        if (mProgressRingPaint != null) {
+            setupBounds(getWidth());
+            setupPaints();
+        }
+        invalidateCells();
+    }
+
+    /* *************************
+     * GETTERS & SETTERS
+     * *************************/
+
+    /**
+     * Get an instance of the current {@link ValueAnimator}
+     * <br/>It animates a fraction from 0 to 1 that is applied to every ring
+     *
+     * @return {@link ValueAnimator}
+     */
+    public ValueAnimator getAnimator() {
+        if (mAnimator == null) {
+            setupAnimator();
+        }
+        return mAnimator;
+    }
+
+    /**
+     * Find the ring under a point
+     *
+     * @param x horizontal position in the view
+     * @param y vertical position in the view
+     * @return the index of the cell or -1 if there is none
+     */
+    public int getCellAt(float x, float y) {
+        if (mCellSize <= 0) {
+            return -1;
+        }
+        float left = x - getPaddingLeft();
+        float top = y - getPaddingTop();
+        if (left < 0 || top < 0) {
+            return -1;
+        }
+        int column = (int) (left / mCellSize);
+        int row = (int) (top / mCellSize);
+        int cell = row * mColumnCount + column;
+        if (column >= mColumnCount || cell >= mCellCount) {
+            return -1;
+        }
+        return cell;
+    }
+
+    /**
+     * @param cell   index of the cell
+     * @param bounds receives the bounds of the ring
+     */
+    public void getCellBounds(int cell, @NonNull RectF bounds) {
+        checkCell(cell);
+        setRingBounds(cell);
+        bounds.set(mRingBounds);
+    }
+
+    public void setOnCellClickListener(@Nullable OnCellClickListener listener) {
+        mOnCellClickListener = listener;
+        setClickable(listener != null);
+    }
+
+    public int getCellCount() {
+        return mCellCount;
+    }
+
+    /**
+     * Set the number of rings, keeping the values of the existing ones
+     *
+     * @param cellCount int
+     */
+    public void setCellCount(int cellCount) {
+        if (cellCount < 0) {
+            throw new IllegalArgumentException("Cell count must be positive");
+        }
+        if (cellCount == mCellCount) {
+            return;
+        }
+        mCellCount = cellCount;
+
+        mProgress = Arrays.copyOf(mProgress, cellCount);
+        mCurrentProgress = Arrays.copyOf(mCurrentProgress, cellCount);
+        mFromProgress = Arrays.copyOf(mFromProgress, cellCount);
+        mToProgress = Arrays.copyOf(mToProgress, cellCount);
+        mColorIndices = Arrays.copyOf(mColorIndices, cellCount);
+        mColorsDirty = true;
+
+        requestLayout();
+        invalidateCells();
+    }
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    public void setColumnCount(int columnCount) {
+        if (columnCount < 1) {
+            throw new IllegalArgumentException("Column count must be at least 1");
+        }
+        mColumnCount = columnCount;
+        requestLayout();
+        invalidateRings();
+    }
+
+    public float getMax() {
+        return mMax;
+    }
+
+    public void setMax(float max) {
+        mMax = max;
+        invalidateCells();
+    }
+
+    public float getCurrentProgress(int cell) {
+        checkCell(cell);
+        return mCurrentProgress[cell];
+    }
+
+    public float getProgress(int cell) {
+        checkCell(cell);
+        return mProgress[cell];
+    }
+
+    /**
+     * Set the progress of a ring, only its row is recorded again
+     */
+    public void setProgress(int cell, float progress) {
+        checkCell(cell);
+        mProgress[cell] = clamp(progress);
+        invalidateCell(cell);
+    }
+
+    /**
+     * Set the progress of every ring at once
+     *
+     * @param progress one value per ring
+     */
+    public void setProgress(@NonNull float[] progress) {
+        int count = Math.min(progress.length, mCellCount);
+        for (int i = 0; i < count; i++) {
+            mProgress[i] = clamp(progress[i]);
+        }
+        invalidateCells();
+    }
+
+    public int getColorIndex(int cell) {
+        checkCell(cell);
+        return mColorIndices[cell];
+    }
+
+    /**
+     * Set the color of a ring, only its row is recorded again
+     *
+     * @param cell       index of the cell
+     * @param colorIndex index of the color in the palette, the progress of the ring is not
+     *                   drawn if there is no such color
+     */
+    public void setColorIndex(int cell, int colorIndex) {
+        checkCell(cell);
+        mColorIndices[cell] = colorIndex;
+        mColorsDirty = true;
+        invalidateCell(cell);
+    }
+
+    /**
+     * Set the color of every ring at once
+     *
+     * @param colorIndices one index of the palette per ring
+     */
+    public void setColorIndices(@NonNull int[] colorIndices) {
+        int count = Math.min(colorIndices.length, mCellCount);
+        System.arraycopy(colorIndices, 0, mColorIndices, 0, count);
+        mColorsDirty = true;
+        invalidateCells();
+    }
+
+    @NonNull
+    public int[] getPalette() {
+        return mPalette;
+    }
+
+    /**
+     * Set the colors the rings pick from with their color index
+     *
+     * @param palette at least one color
+     */
+    public void setPalette(@NonNull int[] palette) {
+        if (palette.length == 0) {
+            throw new IllegalArgumentException("The palette needs at least one color");
+        }
+        mPalette = palette;
+        mColorsDirty = true;
+        invalidateCells();
+    }
+
+    public int getBackgroundRingColor() {
+        return mBackgroundRingColor;
+    }
+
+    public void setBackgroundRingColor(int backgroundRingColor) {
+        mBackgroundRingColor = backgroundRingColor;
+        if (mBackgroundRingPaint != null) {
+            mBackgroundRingPaint.setColor(backgroundRingColor);
+        }
+        invalidateCells();
+    }
+
+    public float getRingSize() {
+        return mRingSize;
+    }
+
+    public void setRingSize(float ringSize) {
+        mRingSize = ringSize;
+        invalidateRings();
+    }
+
+    public float getCellSpacing() {
+        return mCellSpacing;
+    }
+
+    public void setCellSpacing(float cellSpacing) {
+        mCellSpacing = cellSpacing;
+        invalidateRings();
+    }
+
+    public Paint.Cap getProgressRingCorner() {
+        return mProgressRingCorner;
+    }
+
+    public void setProgressRingCorner(int progressRingCorner) {
+        mProgressRingCorner = getCap(progressRingCorner);
+        if (mProgressRingPaint != null) {
+            mProgressRingPaint.setStrokeCap(mProgressRingCorner);
+        }
+        invalidateCells();
+    }
+
+    public Paint.Cap getCap(int id) {
+        return AttributesHelper.getCap(id);
+    }
+
+    /**
+     * A display list per row of rings, each one is recorded again only after it is invalidated
+     */
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class RowNodes {
+        private RenderNode[] mNodes = new RenderNode[0];
+        private boolean[]    mDirty = new boolean[0];
+
+        void setRowCount(int rowCount) {
+            if (rowCount != mNodes.length) {
+                discard();
+                mNodes = new RenderNode[rowCount];
+                mDirty = new boolean[rowCount];
+                Arrays.fill(mDirty, true);
+            }
+        }
+
+        boolean isDirty(int row) {
+            return mDirty[row] || mNodes[row] == null || !mNodes[row].hasDisplayList();
+        }
+
+        void invalidateRow(int row) {
+            if (row < mDirty.length) {
+                mDirty[row] = true;
+            }
+        }
+
+        void invalidateAll() {
+            Arrays.fill(mDirty, true);
+        }
+
+        /**
+         * @return a canvas with the coordinates of the view, clipped to the row
+         */
+        @NonNull
+        Canvas beginRecording(int row, int width, int top, int bottom) {
+            if (mNodes[row] == null) {
+                mNodes[row] = new RenderNode("RingGrid");
+            }
+            RenderNode node = mNodes[row];
+            node.setPosition(0, top, width, bottom);
+            RecordingCanvas canvas = node.beginRecording();
+            canvas.translate(0, -top);
+            return canvas;
+        }
+
+        void endRecording(int row) {
+            mNodes[row].endRecording();
+            mDirty[row] = false;
+        }
+
+        void draw(@NonNull Canvas canvas, int row) {
+            canvas.drawRenderNode(mNodes[row]);
+        }
+
+        void discard() {
+            for (RenderNode node : mNodes) {
+                if (node != null) {
+                    node.discardDisplayList();
+                }
+            }
+            Arrays.fill(mDirty, true);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.franriadigos.view;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Text label drawn in the center of the ring.
+ * <br/>The text is written into a reusable char buffer and only formatted again when the
+ * progress changes, so animating it does not allocate.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RingLabel {
+
+    /**
+     * Max number of chars a {@link CircularProgressContract.LabelFormatter} can write
+     */
+    public static final int BUFFER_SIZE = 32;
+
+    /**
+     * Default formatter, the integer percentage followed by a % sign
+     */
+    public static final CircularProgressContract.LabelFormatter PERCENT =
+            new CircularProgressContract.LabelFormatter() {
+                @Override
+                public int format(float progress, float max, @NonNull char[] buffer) {
+                    int percent = max > 0 ? (int) (progress * 100 / max) : 0;
+                    int length = writeInt(percent, buffer, 0);
+                    buffer[length++] = '%';
+                    return length;
+                }
+            };
+
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+    private int mLength;
+
+    private final Paint mPaint;
+    private float mBaselineOffset;
+
+    @NonNull
+    private CircularProgressContract.LabelFormatter mFormatter = PERCENT;
+    private float mLastProgress = Float.NaN;
+    private float mLastMax      = Float.NaN;
+
+    public RingLabel() {
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * Update the text style, call it whenever the text size or color changes
+     */
+    public void setupPaint(float textSize, int color) {
+        mPaint.setTextSize(textSize);
+        mPaint.setColor(color);
+        // Center the text vertically
+        mBaselineOffset = -(mPaint.ascent() + mPaint.descent()) / 2;
+    }
+
+    public void setFormatter(@NonNull CircularProgressContract.LabelFormatter formatter) {
+        mFormatter = formatter;
+        mLastProgress = Float.NaN;
+    }
+
+    @NonNull
+    public CircularProgressContract.LabelFormatter getFormatter() {
+        return mFormatter;
+    }
+
+    /**
+     * Draw the label centered on the given point, formatting it only if the values changed
+     */
+    public void draw(@NonNull Canvas canvas, float centerX, float centerY, float progress, float max) {
+        if (progress != mLastProgress || max != mLastMax) {
+            mLength = Math.min(mFormatter.format(progress, max, mBuffer), BUFFER_SIZE);
+            mLastProgress = progress;
+            mLastMax = max;
+        }
+        if (mLength > 0) {
+            canvas.drawText(mBuffer, 0, mLength, centerX, centerY + mBaselineOffset, mPaint);
+        }
+    }
+
+    /**
+     * Write the digits of an int into the buffer
+     *
+     * @return the index after the last digit
+     */
+    public static int writeInt(int value, @NonNull char[] buffer, int offset) {
+        if (value < 0) {
+            buffer[offset++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+}
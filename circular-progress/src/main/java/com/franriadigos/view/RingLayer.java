@@ -0,0 +1,93 @@
+package com.franriadigos.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Draws the ring of a container under its children, apart from the rest of its content.
+ * <br/>The ring is drawn by a child view added at index 0, which records its own display list
+ * and is invalidated alone, so the container and the other children are not recorded again.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RingLayer {
+
+    /**
+     * Draws the ring into the layer
+     */
+    public interface Renderer {
+        void drawRing(@NonNull Canvas canvas);
+    }
+
+    private final ViewGroup mHost;
+
+    private RingView mRingView;
+
+    public RingLayer(@NonNull ViewGroup host, @NonNull Renderer renderer) {
+        mHost = host;
+        mRingView = new RingView(host.getContext(), renderer);
+        mHost.addView(mRingView, 0, new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+    }
+
+    /**
+     * @return true if the given child is the view drawing the ring
+     */
+    public boolean isRingView(@NonNull View child) {
+        return child == mRingView;
+    }
+
+    /**
+     * Layout the child drawing the ring over the whole container, ignoring its padding
+     */
+    public void layout(int width, int height) {
+        if (mRingView != null) {
+            mRingView.layout(0, 0, width, height);
+        }
+    }
+
+    /**
+     * Draw the ring again without redrawing the container nor the other children
+     */
+    public void invalidate() {
+        if (mRingView != null) {
+            mRingView.invalidate();
+        }
+    }
+
+    /**
+     * Remove the child drawing the ring
+     */
+    public void release() {
+        if (mRingView != null) {
+            mHost.removeView(mRingView);
+            mRingView = null;
+        }
+    }
+
+    /**
+     * Child drawing the ring, it can't be clicked, focused nor reached by accessibility services
+     */
+    private static final class RingView extends View {
+        private final Renderer mRenderer;
+
+        RingView(@NonNull Context context, @NonNull Renderer renderer) {
+            super(context);
+            mRenderer = renderer;
+            setClickable(false);
+            setFocusable(false);
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+        }
+
+        @Override
+        protected void onDraw(@NonNull Canvas canvas) {
+            mRenderer.drawRing(canvas);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.franriadigos.view;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_360;
+
+/**
+ * Colored segments of a progress ring drawn one after another.
+ * <br/>Start and sweep angles are kept in reusable arrays, updating one segment only shifts the
+ * start angle of the next ones.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RingSegments {
+
+    private float[] mValues      = new float[0];
+    private int[]   mColors      = new int[0];
+    private float[] mStartAngles = new float[0];
+    private float[] mSweepAngles = new float[0];
+    private int     mCount;
+
+    private float mMax = 100;
+    private float mGap;
+
+    private final Paint mPaint;
+
+    public RingSegments() {
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * Set all the segments, arrays are only reallocated if the count grows
+     *
+     * @param values one value per segment, relative to the max of the ring
+     * @param colors one color per segment
+     */
+    public void setSegments(@NonNull float[] values, @NonNull int[] colors) {
+        if (values.length != colors.length) {
+            throw new IllegalArgumentException("Every segment needs a color");
+        }
+        mCount = values.length;
+        if (mValues.length < mCount) {
+            mValues = new float[mCount];
+            mColors = new int[mCount];
+            mStartAngles = new float[mCount];
+            mSweepAngles = new float[mCount];
+        }
+        System.arraycopy(values, 0, mValues, 0, mCount);
+        System.arraycopy(colors, 0, mColors, 0, mCount);
+        computeAngles();
+    }
+
+    /**
+     * Update the value of a single segment
+     *
+     * @param index segment index
+     * @param value new value, relative to the max of the ring
+     */
+    public void setSegment(int index, float value) {
+        checkSegment(index);
+        mValues[index] = value;
+        float sweep = Math.max(0, value) * ANGLE_360 / mMax;
+        float delta = sweep - mSweepAngles[index];
+        mSweepAngles[index] = sweep;
+        for (int i = index + 1; i < mCount; i++) {
+            mStartAngles[i] += delta;
+        }
+    }
+
+    public void setSegmentColor(int index, int color) {
+        checkSegment(index);
+        mColors[index] = color;
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    public float getSegment(int index) {
+        checkSegment(index);
+        return mValues[index];
+    }
+
+    public void clear() {
+        mCount = 0;
+    }
+
+    public void setMax(float max) {
+        if (mMax != max) {
+            mMax = max;
+            computeAngles();
+        }
+    }
+
+    public float getGap() {
+        return mGap;
+    }
+
+    /**
+     * @param gap the space between two segments in degrees
+     */
+    public void setGap(float gap) {
+        mGap = gap;
+    }
+
+    /**
+     * Update the stroke of the segments, call it whenever the progress ring paint changes
+     */
+    public void setupPaint(float strokeWidth, @Nullable Paint.Cap cap) {
+        mPaint.setStrokeWidth(strokeWidth);
+        mPaint.setStrokeCap(cap);
+    }
+
+    /**
+     * Draw every segment clockwise from the given start angle
+     */
+    public void draw(@NonNull Canvas canvas, @NonNull RectF bounds, float startAngle) {
+        float halfGap = mGap / 2;
+        for (int i = 0; i < mCount; i++) {
+            float sweep = mSweepAngles[i] - mGap;
+            if (sweep <= 0) {
+                continue;
+            }
+            mPaint.setColor(mColors[i]);
+            canvas.drawArc(bounds, startAngle + mStartAngles[i] + halfGap, sweep, false, mPaint);
+        }
+    }
+
+    private void computeAngles() {
+        float start = 0;
+        for (int i = 0; i < mCount; i++) {
+            mStartAngles[i] = start;
+            mSweepAngles[i] = Math.max(0, mValues[i]) * ANGLE_360 / mMax;
+            start += mSweepAngles[i];
+        }
+    }
+
+    private void checkSegment(int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("Segment " + index + " of " + mCount);
+        }
+    }
+}
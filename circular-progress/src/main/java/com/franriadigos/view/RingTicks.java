@@ -0,0 +1,99 @@
+package com.franriadigos.view;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_360;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_90;
+
+/**
+ * Tick marks of a dial drawn across the ring.
+ * <br/>The end points of every tick are computed once per size change, lit and unlit ticks
+ * are then drawn with a single {@link Canvas#drawLines(float[], int, int, Paint)} call each.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class RingTicks {
+
+    private float[] mPoints = new float[0];
+    private int     mCount;
+
+    private final Paint mLitPaint   = new Paint();
+    private final Paint mUnlitPaint = new Paint();
+
+    /**
+     * Compute the end points of every tick, from the top and clockwise
+     *
+     * @param bounds   the bounds of the ring
+     * @param count    number of ticks
+     * @param ringSize the size of the ring, ticks go across it
+     */
+    public void setup(@NonNull RectF bounds, int count, float ringSize) {
+        mCount = count;
+        if (mPoints.length < count * 4) {
+            mPoints = new float[count * 4];
+        }
+
+        float centerX = bounds.centerX();
+        float centerY = bounds.centerY();
+        float radius = bounds.width() / 2;
+        float innerRadius = radius - ringSize / 2;
+        float outerRadius = radius + ringSize / 2;
+
+        for (int i = 0; i < count; i++) {
+            double angle = Math.toRadians((float) ANGLE_360 / count * i - ANGLE_90);
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            int p = i * 4;
+            mPoints[p] = centerX + innerRadius * cos;
+            mPoints[p + 1] = centerY + innerRadius * sin;
+            mPoints[p + 2] = centerX + outerRadius * cos;
+            mPoints[p + 3] = centerY + outerRadius * sin;
+        }
+    }
+
+    /**
+     * Copy the ring paints, the ticks keep their colors and shaders
+     */
+    public void setupPaints(@NonNull Paint litPaint, @NonNull Paint unlitPaint, float tickWidth) {
+        mLitPaint.set(litPaint);
+        mLitPaint.setStrokeWidth(tickWidth);
+        mUnlitPaint.set(unlitPaint);
+        mUnlitPaint.setStrokeWidth(tickWidth);
+        mUnlitPaint.setStrokeCap(litPaint.getStrokeCap());
+    }
+
+    /**
+     * Change the color of the lit ticks in place
+     */
+    public void setLitColor(int color) {
+        mLitPaint.setColor(color);
+    }
+
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Draw the lit ticks first and then the remaining ones
+     *
+     * @param lit number of lit ticks
+     */
+    public void draw(@NonNull Canvas canvas, int lit) {
+        if (lit < 0) {
+            lit = 0;
+        } else if (lit > mCount) {
+            lit = mCount;
+        }
+        if (lit > 0) {
+            canvas.drawLines(mPoints, 0, lit * 4, mLitPaint);
+        }
+        if (lit < mCount) {
+            canvas.drawLines(mPoints, lit * 4, (mCount - lit) * 4, mUnlitPaint);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.franriadigos.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Caches the parts of a view that don't change with the progress.
+ * <br/>On API 29+ hardware canvases they are recorded into a {@link RenderNode}, otherwise they
+ * are drawn into a bitmap, unless the bitmap fallback is turned off for parts cheaper to draw
+ * than a view size bitmap. They are only drawn again after {@link #invalidate()}.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class StaticLayer {
+
+    /**
+     * Draws the static parts of the view
+     */
+    public interface Renderer {
+        void drawStatic(@NonNull Canvas canvas);
+    }
+
+    /*
+     * Turned off to render the reference images of the golden image checks
+     */
+    private static volatile boolean sCachingEnabled = true;
+
+    private final Renderer mRenderer;
+    private final boolean  mBitmapFallback;
+
+    /*
+     * Display list on API 29+
+     */
+    private NodeLayer mNode;
+    private boolean   mNodeDirty = true;
+
+    /*
+     * Bitmap fallback
+     */
+    private Bitmap  mBitmap;
+    private Canvas  mBitmapCanvas;
+    private boolean mBitmapDirty = true;
+
+    public StaticLayer(@NonNull Renderer renderer) {
+        this(renderer, true);
+    }
+
+    /**
+     * @param bitmapFallback false to draw the static parts directly when there is no
+     *                       {@link RenderNode}, instead of caching them into a bitmap
+     */
+    public StaticLayer(@NonNull Renderer renderer, boolean bitmapFallback) {
+        mRenderer = renderer;
+        mBitmapFallback = bitmapFallback;
+    }
+
+    /**
+     * @param enabled false to draw the static parts directly on every frame
+     */
+    @VisibleForTesting
+    static void setCachingEnabled(boolean enabled) {
+        sCachingEnabled = enabled;
+    }
+
+    /**
+     * Draw the static parts again on the next frame
+     */
+    public void invalidate() {
+        mNodeDirty = true;
+        mBitmapDirty = true;
+    }
+
+    /**
+     * Draw the cached static parts, recording them first if needed
+     *
+     * @param canvas the canvas of the view
+     * @param width  width of the view
+     * @param height height of the view
+     */
+    public void draw(@NonNull Canvas canvas, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (!sCachingEnabled) {
+            mRenderer.drawStatic(canvas);
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated()) {
+            if (mNode == null) {
+                mNode = new NodeLayer();
+            }
+            if (mNodeDirty || !mNode.isValid(width, height)) {
+                mNode.record(mRenderer, width, height);
+                mNodeDirty = false;
+            }
+            mNode.draw(canvas);
+        } else if (!mBitmapFallback) {
+            mRenderer.drawStatic(canvas);
+        } else {
+            if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height) {
+                mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                mBitmapCanvas = new Canvas(mBitmap);
+                mBitmapDirty = true;
+            }
+            if (mBitmapDirty) {
+                mBitmap.eraseColor(0);
+                mRenderer.drawStatic(mBitmapCanvas);
+                mBitmapDirty = false;
+            }
+            canvas.drawBitmap(mBitmap, 0, 0, null);
+        }
+    }
+
+    /**
+     * Free the display list and the bitmap, they are recreated on the next draw
+     */
+    public void release() {
+        if (mNode != null) {
+            mNode.discard();
+        }
+        mBitmap = null;
+        mBitmapCanvas = null;
+        invalidate();
+    }
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class NodeLayer {
+        private final RenderNode mRenderNode = new RenderNode("StaticLayer");
+
+        boolean isValid(int width, int height) {
+            return mRenderNode.hasDisplayList()
+                   && mRenderNode.getWidth() == width
+                   && mRenderNode.getHeight() == height;
+        }
+
+        void record(@NonNull Renderer renderer, int width, int height) {
+            mRenderNode.setPosition(0, 0, width, height);
+            RecordingCanvas canvas = mRenderNode.beginRecording(width, height);
+            try {
+                renderer.drawStatic(canvas);
+            } finally {
+                mRenderNode.endRecording();
+            }
+        }
+
+        void draw(@NonNull Canvas canvas) {
+            canvas.drawRenderNode(mRenderNode);
+        }
+
+        void discard() {
+            mRenderNode.discardDisplayList();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.franriadigos.view;
+
+import android.animation.ValueAnimator;
+import android.view.animation.DecelerateInterpolator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+
+/**
+ * Collects style changes for a {@link CircularProgressContract} view and applies them at once.
+ * <br/>Every view keeps a single instance, so starting a new edit finishes any running style
+ * animation and reuses the same animator.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class StyleEditor implements CircularProgressContract.Editor {
+
+    /**
+     * Implemented by the views to rebuild or update their paints
+     */
+    public interface Callback {
+        /**
+         * Called once after all pending values were set, paints and shaders must be rebuilt
+         */
+        void onStyleApplied(boolean relayout);
+
+        /**
+         * Called on every frame of a style animation, paints must be updated in place
+         */
+        void onStyleAnimated();
+    }
+
+    private static final int MAX                   = 1;
+    private static final int PROGRESS_RING_SIZE    = 1 << 1;
+    private static final int BACKGROUND_RING_SIZE  = 1 << 2;
+    private static final int BACKGROUND_RING_COLOR = 1 << 3;
+    private static final int PROGRESS_RING_COLOR   = 1 << 4;
+    private static final int PROGRESS_GRADIENT     = 1 << 5;
+    private static final int JOIN_GRADIENT         = 1 << 6;
+    private static final int GRADIENT_FACTOR       = 1 << 7;
+    private static final int PROGRESS_RING_CORNER  = 1 << 8;
+
+    private static final int RELAYOUT = PROGRESS_RING_SIZE | BACKGROUND_RING_SIZE;
+
+    @NonNull
+    private final CircularProgressContract mView;
+    @NonNull
+    private final Callback mCallback;
+
+    private int mPending;
+
+    /*
+     * Pending values
+     */
+    private float   mMax;
+    private float   mProgressRingSize;
+    private float   mBackgroundRingSize;
+    private int     mBackgroundRingColor;
+    private int     mProgressRingColor;
+    private int[]   mProgressGradient;
+    private boolean mIsJoinGradient;
+    private float   mGradientFactor;
+    private int     mProgressRingCorner;
+
+    /*
+     * Animated values, [from, to]
+     */
+    private final float[] mMaxValues                = new float[2];
+    private final float[] mProgressRingSizeValues   = new float[2];
+    private final float[] mBackgroundRingSizeValues = new float[2];
+    private final int[]   mBackgroundRingColorValues = new int[2];
+    private final int[]   mProgressRingColorValues   = new int[2];
+    private int mAnimated;
+
+    /*
+     * Animator
+     */
+    private ValueAnimator mAnimator;
+
+    public StyleEditor(@NonNull CircularProgressContract view, @NonNull Callback callback) {
+        mView = view;
+        mCallback = callback;
+    }
+
+    /**
+     * Finishes any running style animation and clears the pending values
+     *
+     * @return this editor
+     */
+    @NonNull
+    public StyleEditor begin() {
+        if (mAnimator != null && mAnimator.isRunning()) {
+            mAnimator.end();
+        }
+        mPending = 0;
+        mProgressGradient = null;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setMax(float max) {
+        mMax = max;
+        mPending |= MAX;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setProgressRingSize(float progressRingSize) {
+        mProgressRingSize = progressRingSize;
+        mPending |= PROGRESS_RING_SIZE;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setBackgroundRingSize(float backgroundRingSize) {
+        mBackgroundRingSize = backgroundRingSize;
+        mPending |= BACKGROUND_RING_SIZE;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setBackgroundRingColor(int backgroundRingColor) {
+        mBackgroundRingColor = backgroundRingColor;
+        mPending |= BACKGROUND_RING_COLOR;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setProgressRingColor(int progressRingColor) {
+        mProgressRingColor = progressRingColor;
+        mPending |= PROGRESS_RING_COLOR;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setProgressGradient(int[] progressGradient) {
+        mProgressGradient = progressGradient;
+        mPending |= PROGRESS_GRADIENT;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setJoinGradient(boolean isJoinGradient) {
+        mIsJoinGradient = isJoinGradient;
+        mPending |= JOIN_GRADIENT;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setGradientFactor(float gradientFactor) {
+        mGradientFactor = gradientFactor;
+        mPending |= GRADIENT_FACTOR;
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public CircularProgressContract.Editor setProgressRingCorner(int progressRingCorner) {
+        mProgressRingCorner = progressRingCorner;
+        mPending |= PROGRESS_RING_CORNER;
+        return this;
+    }
+
+    @Override
+    public void apply() {
+        int pending = mPending;
+        mPending = 0;
+        if (pending == 0) {
+            return;
+        }
+        setPendingValues(pending);
+        mCallback.onStyleApplied((pending & RELAYOUT) != 0);
+    }
+
+    @Override
+    public void applyAnimated() {
+        int pending = mPending;
+        mPending = 0;
+        if (pending == 0) {
+            return;
+        }
+
+        // Save the current values of the animatable properties
+        mMaxValues[0] = mView.getMax();
+        mProgressRingSizeValues[0] = mView.getProgressRingSize();
+        mBackgroundRingSizeValues[0] = mView.getBackgroundRingSize();
+        mBackgroundRingColorValues[0] = mView.getBackgroundRingColor();
+        mProgressRingColorValues[0] = mView.getProgressRingColor();
+
+        // Rebuild the paints once with the final values
+        setPendingValues(pending);
+        mCallback.onStyleApplied((pending & RELAYOUT) != 0);
+
+        mMaxValues[1] = mView.getMax();
+        mProgressRingSizeValues[1] = mView.getProgressRingSize();
+        mBackgroundRingSizeValues[1] = mView.getBackgroundRingSize();
+        mBackgroundRingColorValues[1] = mView.getBackgroundRingColor();
+        mProgressRingColorValues[1] = mView.getProgressRingColor();
+        mAnimated = pending;
+
+        // Then go back to the previous values and animate them in place
+        setAnimatedValues(0f);
+        mCallback.onStyleAnimated();
+        getAnimator().start();
+    }
+
+    /**
+     * Get an instance of the style animator
+     *
+     * @return {@link ValueAnimator}
+     */
+    @NonNull
+    public ValueAnimator getAnimator() {
+        if (mAnimator == null) {
+            mAnimator = ValueAnimator.ofFloat(0f, 1f);
+            mAnimator.setDuration(CircularProgressContract.STYLE_ANIMATION_DURATION);
+            mAnimator.setInterpolator(new DecelerateInterpolator());
+            mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    setAnimatedValues(animation.getAnimatedFraction());
+                    mCallback.onStyleAnimated();
+                }
+            });
+        }
+        return mAnimator;
+    }
+
+    private void setPendingValues(int pending) {
+        if ((pending & MAX) != 0) {
+            mView.setMax(mMax);
+        }
+        if ((pending & PROGRESS_RING_SIZE) != 0) {
+            mView.setProgressRingSize(mProgressRingSize);
+        }
+        if ((pending & BACKGROUND_RING_SIZE) != 0) {
+            mView.setBackgroundRingSize(mBackgroundRingSize);
+        }
+        if ((pending & BACKGROUND_RING_COLOR) != 0) {
+            mView.setBackgroundRingColor(mBackgroundRingColor);
+        }
+        if ((pending & PROGRESS_RING_COLOR) != 0) {
+            mView.setProgressRingColor(mProgressRingColor);
+        }
+        if ((pending & PROGRESS_GRADIENT) != 0) {
+            mView.setProgressGradient(mProgressGradient);
+            mProgressGradient = null;
+        }
+        if ((pending & JOIN_GRADIENT) != 0) {
+            mView.setJoinGradient(mIsJoinGradient);
+        }
+        if ((pending & GRADIENT_FACTOR) != 0) {
+            mView.setGradientFactor(mGradientFactor);
+        }
+        if ((pending & PROGRESS_RING_CORNER) != 0) {
+            mView.setProgressRingCorner(mProgressRingCorner);
+        }
+    }
+
+    private void setAnimatedValues(float fraction) {
+        if ((mAnimated & MAX) != 0) {
+            mView.setMax(lerp(mMaxValues, fraction));
+        }
+        if ((mAnimated & PROGRESS_RING_SIZE) != 0) {
+            mView.setProgressRingSize(lerp(mProgressRingSizeValues, fraction));
+        }
+        if ((mAnimated & BACKGROUND_RING_SIZE) != 0) {
+            mView.setBackgroundRingSize(lerp(mBackgroundRingSizeValues, fraction));
+        }
+        if ((mAnimated & BACKGROUND_RING_COLOR) != 0) {
+            mView.setBackgroundRingColor(blendColors(
+                    mBackgroundRingColorValues[0], mBackgroundRingColorValues[1], fraction));
+        }
+        if ((mAnimated & PROGRESS_RING_COLOR) != 0) {
+            mView.setProgressRingColor(blendColors(
+                    mProgressRingColorValues[0], mProgressRingColorValues[1], fraction));
+        }
+    }
+
+    private static float lerp(float[] values, float fraction) {
+        return values[0] + (values[1] - values[0]) * fraction;
+    }
+
+    /**
+     * Blend two ARGB colors without boxing them as {@link android.animation.ArgbEvaluator} does
+     */
+    static int blendColors(int from, int to, float fraction) {
+        int a = (from >>> 24) + (int) (((to >>> 24) - (from >>> 24)) * fraction);
+        int r = ((from >> 16) & 0xff) + (int) ((((to >> 16) & 0xff) - ((from >> 16) & 0xff)) * fraction);
+        int g = ((from >> 8) & 0xff) + (int) ((((to >> 8) & 0xff) - ((from >> 8) & 0xff)) * fraction);
+        int b = (from & 0xff) + (int) (((to & 0xff) - (from & 0xff)) * fraction);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,102 @@
+package com.franriadigos.view;
+
+import android.graphics.Matrix;
+import android.graphics.Shader;
+import android.graphics.SweepGradient;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
+
+import static androidx.annotation.RestrictTo.Scope.LIBRARY_GROUP_PREFIX;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_360;
+import static com.franriadigos.view.CircularProgressContract.ANGLE_90;
+
+/**
+ * Sweep gradients spanning the current sweep of the progress ring instead of the full circle.
+ * <br/>The stops of a {@link SweepGradient} can't be changed and no affine matrix can compress
+ * its angles, so one gradient is built per step of the sweep when the style changes. Every frame
+ * only picks the gradient of the current sweep.
+ */
+@RestrictTo(LIBRARY_GROUP_PREFIX)
+public class SweepGradientBank {
+
+    /**
+     * Number of gradients, one every 4 degrees
+     */
+    static final int STEPS = 90;
+
+    /**
+     * Smallest sweep of an exact gradient, as a fraction of the circle
+     */
+    private static final float MIN_EXACT_SWEEP = 0.001f;
+
+    /*
+     * Turned on to render the reference images of the golden image checks
+     */
+    private static volatile boolean sExact;
+
+    private final Shader[] mShaders = new Shader[STEPS + 1];
+
+    /*
+     * Values of the last setup, to build the exact gradients of the reference images
+     */
+    private float  mCenterX;
+    private float  mCenterY;
+    private int[]  mColors;
+    private Matrix mMatrix;
+
+    /**
+     * @param exact true to build an exact gradient for every sweep instead of picking a step
+     */
+    @VisibleForTesting
+    static void setExact(boolean exact) {
+        sExact = exact;
+    }
+
+    /**
+     * Build the gradients, call it only when the bounds or the colors change
+     *
+     * @param centerX center of the ring
+     * @param centerY center of the ring
+     * @param colors  colors of the gradient, from the start to the end of the sweep
+     */
+    public void setup(float centerX, float centerY, @NonNull int[] colors) {
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mColors = colors;
+        mMatrix = new Matrix();
+        mMatrix.setRotate(-ANGLE_90, centerX, centerY);
+
+        for (int step = 0; step <= STEPS; step++) {
+            mShaders[step] = createShader(Math.max(1, step) / (float) STEPS);
+        }
+    }
+
+    /**
+     * @param sweepAngle current sweep of the progress ring in degrees
+     * @return the gradient ending at the first step that covers the sweep
+     */
+    @NonNull
+    public Shader get(float sweepAngle) {
+        if (sExact) {
+            return createShader(Math.min(1, Math.max(MIN_EXACT_SWEEP, sweepAngle / ANGLE_360)));
+        }
+        int step = (int) Math.ceil(sweepAngle / ANGLE_360 * STEPS);
+        return mShaders[Math.max(0, Math.min(STEPS, step))];
+    }
+
+    /**
+     * @param sweep end of the gradient as a fraction of the circle
+     */
+    private Shader createShader(float sweep) {
+        int last = mColors.length - 1;
+        float[] positions = new float[mColors.length];
+        for (int i = 1; i <= last; i++) {
+            positions[i] = sweep * i / last;
+        }
+        Shader shader = new SweepGradient(mCenterX, mCenterY, mColors, positions);
+        shader.setLocalMatrix(mMatrix);
+        return shader;
+    }
+}
@@ -0,0 +1,485 @@
+/*
+ * Copyright (C) 2015-2020 Francisco Gonzalez-Armijo Riádigos
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.franriadigos.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.provider.Settings;
+import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.TextureView;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circular progress drawn on a dedicated render thread, for screens with many rings that update
+ * continuously, like live dashboards, where drawing on the main thread would compete with the UI.
+ * <p/>
+ * <b>Usage:</b>
+ * <br>Set the style with {@link #setStyle(CircularProgressContract)} or the setters, then feed it
+ * with {@link #setProgress(float)} or {@link #animateProgressTo(float)} from any thread.
+ * <br>Progress values are handed off to the render thread without locks, the latest value wins.
+ * The ring is only drawn when something changed, at most {@link #setFrameRate(int)} times per
+ * second, so it keeps animating smoothly while the main thread is busy.
+ * <br>It needs a hardware accelerated window, like any {@link TextureView}.
+ *
+ * @see CircularProgressRenderer
+ */
+public class TextureViewCircularProgress extends TextureView
+        implements TextureView.SurfaceTextureListener {
+
+    public static final int DEFAULT_FRAME_RATE = 60;
+
+    /*
+     * No progress waiting for the render thread, never a packed value
+     */
+    private static final long NO_PENDING_PROGRESS = -1L;
+
+    private final CircularProgressRenderer mRenderer = new CircularProgressRenderer();
+
+    /*
+     * Latest progress set from any thread, packed with its animate flag
+     */
+    private final AtomicLong mPendingProgress = new AtomicLong(NO_PENDING_PROGRESS);
+    private final AtomicBoolean mRedrawPending = new AtomicBoolean();
+
+    /**
+     * Progress values
+     */
+    private volatile float mMax      = 100;
+    private volatile float mProgress = 0;
+
+    private volatile int mFrameRate = DEFAULT_FRAME_RATE;
+
+    @Nullable
+    private volatile RenderThread mRenderThread;
+
+    public TextureViewCircularProgress(Context context) {
+        this(context, null);
+    }
+
+    public TextureViewCircularProgress(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public TextureViewCircularProgress(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+    }
+
+    /* *************************
+     * SURFACE
+     * *************************/
+
+    @Override
+    public void onSurfaceTextureAvailable(@NonNull SurfaceTexture surfaceTexture,
+                                          int width, int height) {
+        float durationScale = Settings.Global.getFloat(getContext().getContentResolver(),
+                                                       Settings.Global.ANIMATOR_DURATION_SCALE,
+                                                       1f);
+        RenderThread renderThread = new RenderThread(surfaceTexture, width, height, durationScale);
+        renderThread.start();
+        mRenderThread = renderThread;
+        mRedrawPending.set(false);
+        renderThread.requestProgress();
+        requestRender();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(@NonNull SurfaceTexture surfaceTexture,
+                                            final int width, final int height) {
+        final RenderThread renderThread = mRenderThread;
+        if (renderThread != null) {
+            renderThread.getHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    renderThread.setSize(width, height);
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(@NonNull SurfaceTexture surfaceTexture) {
+        RenderThread renderThread = mRenderThread;
+        mRenderThread = null;
+        if (renderThread != null) {
+            // The surface must not be drawn once this returns
+            renderThread.quitAndWait();
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(@NonNull SurfaceTexture surfaceTexture) {
+    }
+
+    /**
+     * Draw the ring again on the render thread, e.g. after changing the renderer directly
+     */
+    @AnyThread
+    public void requestRender() {
+        RenderThread renderThread = mRenderThread;
+        if (renderThread != null && mRedrawPending.compareAndSet(false, true)) {
+            renderThread.getHandler().post(renderThread.mRedraw);
+        }
+    }
+
+    /* *************************
+     * GETTERS & SETTERS
+     * *************************/
+
+    /**
+     * @return the renderer shared with the render thread, call {@link #requestRender()} after
+     * changing it
+     */
+    @NonNull
+    public CircularProgressRenderer getRenderer() {
+        return mRenderer;
+    }
+
+    /**
+     * Copy the style and progress of a circular progress view
+     */
+    public void setStyle(@NonNull CircularProgressContract view) {
+        mRenderer.setStyle(view);
+        mMax = view.getMax();
+        setProgress(view.getProgress());
+        requestRender();
+    }
+
+    public int getFrameRate() {
+        return mFrameRate;
+    }
+
+    /**
+     * @param frameRate max frames per second drawn by the render thread, 0 for no limit
+     */
+    @AnyThread
+    public void setFrameRate(int frameRate) {
+        mFrameRate = Math.max(frameRate, 0);
+    }
+
+    public float getMax() {
+        return mMax;
+    }
+
+    @AnyThread
+    public void setMax(float max) {
+        mMax = max;
+        mRenderer.setMax(max);
+        requestRender();
+    }
+
+    /**
+     * @return the latest progress set, the ring may still be animating towards it
+     */
+    public float getProgress() {
+        return mProgress;
+    }
+
+    @AnyThread
+    public void setProgress(float progress) {
+        handOffProgress(progress, false);
+    }
+
+    /**
+     * It will animate the progress ring to the given value on the render thread
+     * <br/>Calling it again while animating absorbs the new value keeping the current velocity
+     *
+     * @param progress the new progress value
+     */
+    @AnyThread
+    public void animateProgressTo(float progress) {
+        handOffProgress(progress, true);
+    }
+
+    private void handOffProgress(float progress, boolean animate) {
+        float max = mMax;
+        if (progress < 0) {
+            progress = 0;
+        } else if (progress > max) {
+            progress = max;
+        }
+        mProgress = progress;
+        long packed = (animate ? 1L << 32 : 0) | (Float.floatToIntBits(progress) & 0xffffffffL);
+        // Only wake the render thread if it consumed the previous value
+        if (mPendingProgress.getAndSet(packed) == NO_PENDING_PROGRESS) {
+            RenderThread renderThread = mRenderThread;
+            if (renderThread != null) {
+                renderThread.requestProgress();
+            }
+        }
+    }
+
+    public float getProgressRingSize() {
+        return mRenderer.getProgressRingSize();
+    }
+
+    public void setProgressRingSize(float progressRingSize) {
+        mRenderer.setProgressRingSize(progressRingSize);
+        requestRender();
+    }
+
+    public float getBackgroundRingSize() {
+        return mRenderer.getBackgroundRingSize();
+    }
+
+    public void setBackgroundRingSize(float backgroundRingSize) {
+        mRenderer.setBackgroundRingSize(backgroundRingSize);
+        requestRender();
+    }
+
+    public int getBackgroundRingColor() {
+        return mRenderer.getBackgroundRingColor();
+    }
+
+    public void setBackgroundRingColor(int backgroundRingColor) {
+        mRenderer.setBackgroundRingColor(backgroundRingColor);
+        requestRender();
+    }
+
+    public int getProgressRingColor() {
+        return mRenderer.getProgressRingColor();
+    }
+
+    public void setProgressRingColor(int progressRingColor) {
+        mRenderer.setProgressRingColor(progressRingColor);
+        requestRender();
+    }
+
+    public int[] getProgressGradient() {
+        return mRenderer.getProgressGradient();
+    }
+
+    public void setProgressGradient(@Nullable int[] progressGradient) {
+        mRenderer.setProgressGradient(progressGradient);
+        requestRender();
+    }
+
+    public boolean isJoinGradient() {
+        return mRenderer.isJoinGradient();
+    }
+
+    public void setJoinGradient(boolean isJoinGradient) {
+        mRenderer.setJoinGradient(isJoinGradient);
+        requestRender();
+    }
+
+    public Paint.Cap getProgressRingCorner() {
+        return mRenderer.getProgressRingCorner();
+    }
+
+    public void setProgressRingCorner(int progressRingCorner) {
+        mRenderer.setProgressRingCorner(getCap(progressRingCorner));
+        requestRender();
+    }
+
+    public Paint.Cap getCap(int id) {
+        return AttributesHelper.getCap(id);
+    }
+
+    /**
+     * Owns the surface, the progress spring and its {@link Choreographer}.
+     * <br/>Everything but the handoff methods runs on this thread.
+     */
+    private final class RenderThread extends HandlerThread
+            implements ProgressSpring.Callback {
+
+        private final SurfaceTexture mSurfaceTexture;
+        private final float          mDurationScale;
+
+        private Handler        mHandler;
+        private Surface        mSurface;
+        private ProgressSpring mSpring;
+        private int            mWidth;
+        private int            mHeight;
+        private float          mDrawnProgress;
+        private long           mLastFrameNanos;
+        private boolean        mFramePending;
+
+        final Runnable mRedraw = new Runnable() {
+            @Override
+            public void run() {
+                mRedrawPending.set(false);
+                drawFrame();
+            }
+        };
+
+        /*
+         * Draws a value that arrived before its frame was due
+         */
+        private final Runnable mPendingFrame = new Runnable() {
+            @Override
+            public void run() {
+                mFramePending = false;
+                mLastFrameNanos = System.nanoTime();
+                drawFrame();
+            }
+        };
+
+        private final Runnable mConsumeProgress = new Runnable() {
+            @Override
+            public void run() {
+                consumeProgress();
+            }
+        };
+
+        RenderThread(@NonNull SurfaceTexture surfaceTexture, int width, int height,
+                     float durationScale) {
+            super("CircularProgressRender", Process.THREAD_PRIORITY_DISPLAY);
+            mSurfaceTexture = surfaceTexture;
+            mWidth = width;
+            mHeight = height;
+            mDurationScale = durationScale;
+            mDrawnProgress = mProgress;
+        }
+
+        @Override
+        protected void onLooperPrepared() {
+            mSurface = new Surface(mSurfaceTexture);
+            // The spring posts to the Choreographer of this thread
+            mSpring = new ProgressSpring(this);
+            mSpring.setTimeScale(mDurationScale);
+        }
+
+        @NonNull
+        synchronized Handler getHandler() {
+            if (mHandler == null) {
+                mHandler = new Handler(getLooper());
+            }
+            return mHandler;
+        }
+
+        @AnyThread
+        void requestProgress() {
+            getHandler().post(mConsumeProgress);
+        }
+
+        void setSize(int width, int height) {
+            mWidth = width;
+            mHeight = height;
+            drawFrame();
+        }
+
+        /**
+         * Take the latest progress handed off, older values were overwritten
+         */
+        private void consumeProgress() {
+            long packed = mPendingProgress.getAndSet(NO_PENDING_PROGRESS);
+            if (packed == NO_PENDING_PROGRESS) {
+                return;
+            }
+            float progress = Float.intBitsToFloat((int) packed);
+            if ((packed >>> 32) != 0) {
+                if (!mSpring.isRunning()) {
+                    mSpring.setPosition(mDrawnProgress);
+                }
+                mSpring.animateTo(progress);
+            } else {
+                mSpring.setPosition(progress);
+                onSpringUpdate(progress);
+            }
+        }
+
+        @Override
+        public void onSpringUpdate(float value) {
+            mDrawnProgress = value;
+            long delay = getFrameDelayNanos();
+            if (delay == 0) {
+                mLastFrameNanos = System.nanoTime();
+                drawFrame();
+            } else if (!mSpring.isRunning() && !mFramePending) {
+                // A value set without animation or the last one of the spring, draw it once
+                // its frame is due
+                mFramePending = true;
+                getHandler().postDelayed(mPendingFrame, (delay + 999_999L) / 1_000_000L);
+            }
+        }
+
+        /**
+         * @return nanoseconds until the next frame can be drawn, 0 if it is due
+         */
+        private long getFrameDelayNanos() {
+            int frameRate = mFrameRate;
+            if (frameRate == 0) {
+                return 0;
+            }
+            long delay = mLastFrameNanos + 1_000_000_000L / frameRate - System.nanoTime();
+            return Math.max(0, delay);
+        }
+
+        private void drawFrame() {
+            if (mFramePending) {
+                // This frame already draws the latest value
+                mFramePending = false;
+                getHandler().removeCallbacks(mPendingFrame);
+            }
+            if (mSurface == null || !mSurface.isValid() || mWidth <= 0 || mHeight <= 0) {
+                return;
+            }
+            Canvas canvas;
+            try {
+                canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                         ? mSurface.lockHardwareCanvas()
+                         : mSurface.lockCanvas(null);
+            } catch (IllegalArgumentException | Surface.OutOfResourcesException e) {
+                return;
+            }
+            try {
+                canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+                mRenderer.setProgress(mDrawnProgress);
+                mRenderer.draw(canvas, mWidth, mHeight);
+            } finally {
+                mSurface.unlockCanvasAndPost(canvas);
+            }
+        }
+
+        /**
+         * Stop drawing and release the surface, blocking until the thread ends
+         */
+        void quitAndWait() {
+            getHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    mSpring.cancel();
+                    mSurface.release();
+                    mSurface = null;
+                    quit();
+                }
+            });
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.franriadigos.view;
+
+import android.animation.ObjectAnimator;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the views with their fast paths and compares them against a reference render
+ * without caches, to catch stale caches, wrong gradient rotations or misaligned caps.
+ * <p/>
+ * Every case of the matrix draws a view once so its caches are filled, changes the progress
+ * and the style, and draws it again, at rest or in the middle of an animation. The result must
+ * match a new view with the same values drawn with {@link StaticLayer} caching turned off, no
+ * ring layer and exact sweep gradients, within the given tolerances. Gradients following the
+ * sweep may also lag by one step of the {@link SweepGradientBank}.
+ * <br/>It only needs a software canvas, see {@link GoldenImageTest}.
+ */
+public class GoldenImageHarness {
+
+    /**
+     * Max difference of a color channel for two pixels to match
+     */
+    public static final int DEFAULT_CHANNEL_TOLERANCE = 8;
+
+    /**
+     * Max ratio of pixels that can differ, anti-aliased edges may differ slightly
+     */
+    public static final float DEFAULT_MAX_MISMATCH = 0.002f;
+
+    /*
+     * Matrix of the cases
+     */
+    static final int[]     SIZES    = {48, 120, 320};
+    static final float[]   PROGRESS = {0, 12.5f, 50, 99.9f, 100};
+    static final Paint.Cap[] CORNERS = {Paint.Cap.BUTT, Paint.Cap.ROUND};
+    static final int[]     GRADIENT = {Color.RED, Color.YELLOW, Color.GREEN};
+
+    /*
+     * How the gradient of a case is drawn
+     */
+    static final int GRADIENT_NONE         = 0;
+    static final int GRADIENT_FULL_CIRCLE  = 1;
+    static final int GRADIENT_FOLLOW_SWEEP = 2;
+    static final int GRADIENT_MODES        = 3;
+
+    /*
+     * Views of a case
+     */
+    static final int VIEW_FRAME_LAYOUT            = 0;
+    static final int VIEW_FRAME_LAYOUT_RING_LAYER = 1;
+    static final int VIEW_IMAGE_VIEW              = 2;
+    static final int VIEW_TYPES                   = 3;
+
+    /**
+     * Part of the animation drawn by the animated cases, before the overshoot
+     */
+    static final float ANIMATION_FRACTION = 0.3f;
+
+    /**
+     * Pixel difference between two renders
+     */
+    public static final class Result {
+        public final int mismatchedPixels;
+        public final int totalPixels;
+        public final int maxChannelDelta;
+
+        Result(int mismatchedPixels, int totalPixels, int maxChannelDelta) {
+            this.mismatchedPixels = mismatchedPixels;
+            this.totalPixels = totalPixels;
+            this.maxChannelDelta = maxChannelDelta;
+        }
+
+        public float getMismatchRatio() {
+            return totalPixels > 0 ? (float) mismatchedPixels / totalPixels : 0;
+        }
+    }
+
+    private GoldenImageHarness() {
+    }
+
+    /**
+     * Run the whole matrix with the default tolerances
+     *
+     * @return a description of every failing case, empty if all of them pass
+     */
+    @NonNull
+    public static List<String> runMatrix(@NonNull Context context) {
+        return runMatrix(context, DEFAULT_CHANNEL_TOLERANCE, DEFAULT_MAX_MISMATCH);
+    }
+
+    @NonNull
+    public static List<String> runMatrix(@NonNull Context context, int channelTolerance,
+                                         float maxMismatch) {
+        List<String> failures = new ArrayList<>();
+        for (int size : SIZES) {
+            for (float progress : PROGRESS) {
+                for (Paint.Cap corner : CORNERS) {
+                    for (int gradient = 0; gradient < GRADIENT_MODES; gradient++) {
+                        for (int type = 0; type < VIEW_TYPES; type++) {
+                            for (int animated = 0; animated < 2; animated++) {
+                                String name = "view=" + type + " size=" + size
+                                              + " progress=" + progress + " corner=" + corner
+                                              + " gradient=" + gradient
+                                              + " animated=" + (animated == 1);
+                                Result result = runCase(context, type, size, progress,
+                                                        corner.ordinal(), gradient,
+                                                        animated == 1, channelTolerance);
+                                if (result.getMismatchRatio() > maxMismatch) {
+                                    failures.add(name + " mismatch=" + result.getMismatchRatio()
+                                                 + " maxDelta=" + result.maxChannelDelta);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Compare the cached render of a view that changed against a reference render
+     *
+     * @param type             one of {@link #VIEW_FRAME_LAYOUT},
+     *                         {@link #VIEW_FRAME_LAYOUT_RING_LAYER} or {@link #VIEW_IMAGE_VIEW}
+     * @param gradient         one of {@link #GRADIENT_NONE}, {@link #GRADIENT_FULL_CIRCLE} or
+     *                         {@link #GRADIENT_FOLLOW_SWEEP}
+     * @param animated         true to draw the view in the middle of its animation to the
+     *                         progress instead of at rest
+     * @param channelTolerance max difference of a color channel for two pixels to match
+     */
+    @NonNull
+    public static Result runCase(@NonNull Context context, int type, int size, float progress,
+                                 int corner, int gradient, boolean animated,
+                                 int channelTolerance) {
+        // Fill the caches with another progress and style first
+        View view = createView(context, type);
+        CircularProgressContract contract = (CircularProgressContract) view;
+        contract.setProgress(getPrefillProgress(progress));
+        render(view, size);
+
+        contract.setProgress(progress);
+        contract.setGradientFollowSweep(gradient == GRADIENT_FOLLOW_SWEEP);
+        contract.edit()
+                .setBackgroundRingColor(Color.DKGRAY)
+                .setProgressRingCorner(corner)
+                .setProgressGradient(gradient != GRADIENT_NONE ? GRADIENT : null)
+                .apply();
+        ObjectAnimator animator = null;
+        if (animated) {
+            animator = startAnimation(view);
+            // Seeking runs the update listener, which draws the animated value
+            animator.setCurrentPlayTime((long) (animator.getDuration() * ANIMATION_FRACTION));
+        }
+        Bitmap actual = render(view, size);
+        // The drawn value, the one the animation reached or the final one
+        float drawnProgress = contract.getProgress();
+        if (animator != null) {
+            animator.cancel();
+        }
+
+        // The reference draws the ring without its own layer
+        int referenceType = type == VIEW_FRAME_LAYOUT_RING_LAYER ? VIEW_FRAME_LAYOUT : type;
+        View referenceView = createView(context, referenceType);
+        CircularProgressContract reference = (CircularProgressContract) referenceView;
+        reference.setProgress(drawnProgress);
+        reference.setBackgroundRingColor(Color.DKGRAY);
+        reference.setProgressRingCorner(corner);
+        reference.setGradientFollowSweep(gradient == GRADIENT_FOLLOW_SWEEP);
+        reference.setProgressGradient(gradient != GRADIENT_NONE ? GRADIENT : null);
+        Bitmap expected = renderReference(referenceView, size);
+
+        if (gradient == GRADIENT_FOLLOW_SWEEP) {
+            channelTolerance += getStepTolerance(contract.getMax(), drawnProgress);
+        }
+        return compare(actual, expected, channelTolerance);
+    }
+
+    /**
+     * @return a progress that always differs from the given one, to fill the caches with
+     */
+    static float getPrefillProgress(float progress) {
+        float max = PROGRESS[PROGRESS.length - 1];
+        return (progress + max * 0.375f) % max;
+    }
+
+    /**
+     * The gradient of the {@link SweepGradientBank} ends at the first step covering the sweep,
+     * so its colors lag behind the exact gradient by up to the part of the step not drawn
+     *
+     * @return max difference of a color channel caused by the step of the given progress
+     */
+    static int getStepTolerance(float max, float progress) {
+        float sweep = progress / max;
+        if (sweep <= 0) {
+            return 0;
+        }
+        float step = Math.max(1, (float) Math.ceil(sweep * SweepGradientBank.STEPS))
+                     / SweepGradientBank.STEPS;
+        // Every color of the gradient changes each channel by up to 255
+        return (int) Math.ceil(255 * (GRADIENT.length - 1) * (1 - sweep / step));
+    }
+
+    private static ObjectAnimator startAnimation(@NonNull View view) {
+        if (view instanceof FrameLayoutCircularProgress) {
+            ((FrameLayoutCircularProgress) view).startAnimation();
+            return ((FrameLayoutCircularProgress) view).getAnimator();
+        }
+        ((ImageViewCircularProgress) view).startAnimation();
+        return ((ImageViewCircularProgress) view).getAnimator();
+    }
+
+    /**
+     * Lay out the view with the given square size and draw it into a new bitmap
+     */
+    @NonNull
+    public static Bitmap render(@NonNull View view, int size) {
+        int spec = View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, size, size);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        view.draw(new Canvas(bitmap));
+        return bitmap;
+    }
+
+    /**
+     * Draw the view without caching its static parts, and with a sweep gradient built for the
+     * exact sweep instead of a step of the {@link SweepGradientBank}
+     */
+    @NonNull
+    public static Bitmap renderReference(@NonNull View view, int size) {
+        StaticLayer.setCachingEnabled(false);
+        SweepGradientBank.setExact(true);
+        try {
+            return render(view, size);
+        } finally {
+            StaticLayer.setCachingEnabled(true);
+            SweepGradientBank.setExact(false);
+        }
+    }
+
+    /**
+     * @param channelTolerance max difference of a color channel for two pixels to match
+     */
+    @NonNull
+    public static Result compare(@NonNull Bitmap actual, @NonNull Bitmap expected,
+                                 int channelTolerance) {
+        int width = Math.min(actual.getWidth(), expected.getWidth());
+        int height = Math.min(actual.getHeight(), expected.getHeight());
+        int[] actualRow = new int[width];
+        int[] expectedRow = new int[width];
+        int mismatched = 0;
+        int maxDelta = 0;
+        for (int y = 0; y < height; y++) {
+            actual.getPixels(actualRow, 0, width, 0, y, width, 1);
+            expected.getPixels(expectedRow, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x++) {
+                int delta = channelDelta(actualRow[x], expectedRow[x]);
+                maxDelta = Math.max(maxDelta, delta);
+                if (delta > channelTolerance) {
+                    mismatched++;
+                }
+            }
+        }
+        // Any difference of size counts as mismatched pixels
+        int total = Math.max(actual.getWidth() * actual.getHeight(),
+                             expected.getWidth() * expected.getHeight());
+        mismatched += total - width * height;
+        return new Result(mismatched, total, maxDelta);
+    }
+
+    private static int channelDelta(int a, int b) {
+        int delta = Math.abs((a >>> 24) - (b >>> 24));
+        delta = Math.max(delta, Math.abs(((a >> 16) & 0xff) - ((b >> 16) & 0xff)));
+        delta = Math.max(delta, Math.abs(((a >> 8) & 0xff) - ((b >> 8) & 0xff)));
+        return Math.max(delta, Math.abs((a & 0xff) - (b & 0xff)));
+    }
+
+    private static View createView(@NonNull Context context, int type) {
+        CircularProgressContract view;
+        if (type != VIEW_IMAGE_VIEW) {
+            FrameLayoutCircularProgress frameLayout = new FrameLayoutCircularProgress(context);
+            frameLayout.setRingLayerEnabled(type == VIEW_FRAME_LAYOUT_RING_LAYER);
+            view = frameLayout;
+        } else {
+            ImageViewCircularProgress imageView = new ImageViewCircularProgress(context);
+            imageView.setImageDrawable(new ColorDrawable(Color.BLUE));
+            view = imageView;
+        }
+        // The reference has no low quality path
+        view.setRenderQuality(CircularProgressContract.QUALITY_HIGH);
+        view.setProgressRingSize(12);
+        view.setBackgroundRingSize(12);
+        return (View) view;
+    }
+}
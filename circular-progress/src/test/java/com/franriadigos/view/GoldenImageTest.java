@@ -0,0 +1,30 @@
+package com.franriadigos.view;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the {@link GoldenImageHarness} matrix on the JVM, the native graphics mode draws with
+ * the real Skia so the pixels can be compared.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class GoldenImageTest {
+
+    @Test
+    public void cachedRendersMatchReference() {
+        Context context = ApplicationProvider.getApplicationContext();
+        List<String> failures = GoldenImageHarness.runMatrix(context);
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+}
@@ -3,7 +3,6 @@ package com.franriadigos.demo;
 import android.os.Bundle;
 import android.os.Handler;
 import android.view.animation.AccelerateDecelerateInterpolator;
-import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
@@ -17,8 +16,6 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        final TextView percentage = findViewById(R.id.percentage);
-
         final ImageViewCircularProgress profile = findViewById(R.id.profile);
 
         // Using an Image Loader as usual
@@ -34,17 +31,7 @@ public class MainActivity extends AppCompatActivity {
             // Waits for 2 sec and then updates the percentage
             profile.setProgress(78.5f);
 
-            // Show the current percentage while animating
-            profile.getAnimator()
-                   .addUpdateListener(animation -> {
-                       int absValue = Float
-                               .valueOf(animation.getAnimatedValue().toString())
-                               .intValue();
-                       if(percentage != null) {
-                           percentage.setText("Completed: " + absValue + "%");
-                       }
-                   });
-
+            // The label shows the current percentage while animating
             profile.startAnimation();
 
         }, 2000);